@@ -2,16 +2,22 @@ package com.ihms.appointment.controller;
 
 import com.ihms.appointment.entity.DoctorSchedule;
 import com.ihms.appointment.service.AppointmentService;
+import com.ihms.appointment.service.SlotSearchService;
 import com.ihms.common.dto.ApiResponse;
 import com.ihms.common.dto.AppointmentDTO;
+import com.ihms.common.dto.TimeSlotDTO;
+import com.ihms.common.web.KeysetPagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -22,13 +28,26 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final SlotSearchService slotSearchService;
 
     @GetMapping
-    @Operation(summary = "Get all appointments")
-    public ResponseEntity<ApiResponse<List<AppointmentDTO>>> getAllAppointments() {
+    @Operation(summary = "Get all appointments, or one keyset page when after/limit are given")
+    public ResponseEntity<ApiResponse<List<AppointmentDTO>>> getAllAppointments(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.isRequested(after, limit)) {
+            return ResponseEntity.ok(ApiResponse.success(appointmentService.getAppointmentsPage(after, limit)));
+        }
         return ResponseEntity.ok(ApiResponse.success(appointmentService.getAllAppointments()));
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all appointments as NDJSON")
+    public void exportAppointments(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        appointmentService.exportAppointments(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get appointment by ID")
     public ResponseEntity<ApiResponse<AppointmentDTO>> getAppointmentById(@PathVariable Long id) {
@@ -81,6 +100,26 @@ public class AppointmentController {
         return ResponseEntity.ok(ApiResponse.success(appointmentService.getDoctorSchedules(doctorId)));
     }
 
+    @GetMapping("/doctors/{doctorId}/slots")
+    @Operation(summary = "Get a doctor's free appointment slots on a date")
+    public ResponseEntity<ApiResponse<List<TimeSlotDTO>>> getAvailableSlots(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(ApiResponse.success(appointmentService.getAvailableSlots(doctorId, date)));
+    }
+
+    @GetMapping("/slots/search")
+    @Operation(summary = "Find the earliest open slots across all doctors of a specialization")
+    public ResponseEntity<ApiResponse<List<TimeSlotDTO>>> searchSlots(
+            @RequestParam String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer slotMinutes,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(
+                slotSearchService.searchSlots(specialization, from, to, slotMinutes, limit)));
+    }
+
     @GetMapping("/doctors/available")
     @Operation(summary = "Get available doctors")
     public ResponseEntity<ApiResponse<List<DoctorSchedule>>> getAvailableDoctors() {
@@ -1,11 +1,14 @@
 package com.ihms.appointment.repository;
 
 import com.ihms.appointment.entity.Appointment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,13 +21,37 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByStatus(Appointment.Status status);
 
     @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId " +
-           "AND a.appointmentDateTime BETWEEN :start AND :end")
+           "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end")
     List<Appointment> findByDoctorIdAndDateRange(Long doctorId, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime BETWEEN :start AND :end")
+    // Half-open ranges on the partition key let PostgreSQL prune to the months that are touched
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime >= :start AND a.appointmentDateTime < :end")
     List<Appointment> findByDateRange(LocalDateTime start, LocalDateTime end);
 
     @Query("SELECT a FROM Appointment a WHERE a.patientId = :patientId AND a.status = 'SCHEDULED'")
     List<Appointment> findUpcomingByPatientId(Long patientId);
-}
 
+    List<Appointment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId AND a.status NOT IN ('CANCELLED', 'NO_SHOW') " +
+           "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to")
+    List<Appointment> findActiveByDoctorIdBetween(@Param("doctorId") Long doctorId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    @Query("SELECT a FROM Appointment a WHERE a.doctorId IN :doctorIds AND a.status NOT IN ('CANCELLED', 'NO_SHOW') " +
+           "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to")
+    List<Appointment> findActiveByDoctorIdInBetween(@Param("doctorIds") Collection<Long> doctorIds,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    // The lower bound lets PostgreSQL prune the monthly partitions; no appointment lasts a day
+    @Query(value = "SELECT * FROM appointments a WHERE a.doctor_id = :doctorId " +
+                   "AND a.status NOT IN ('CANCELLED', 'NO_SHOW') AND a.appointment_date_time < :end " +
+                   "AND a.appointment_date_time > CAST(:start AS timestamp) - INTERVAL '1 day' " +
+                   "AND a.appointment_date_time + a.duration_minutes * INTERVAL '1 minute' > :start",
+           nativeQuery = true)
+    List<Appointment> findOverlapping(@Param("doctorId") Long doctorId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,37 @@
+package com.ihms.appointment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Keeps monthly partitions of the appointments table created ahead of time, so new bookings
+ * land in a dedicated partition rather than the default one. The database function is
+ * idempotent and serialised with an advisory lock, so every instance may run this.
+ */
+@Component
+public class AppointmentPartitionMaintenance {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public AppointmentPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                           @Value("${ihms.appointments.partitions.months-ahead:12}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ihms.appointments.partitions.maintenance-cron:0 0 3 * * *}")
+    public void createFuturePartitions() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        jdbcTemplate.queryForObject("SELECT create_appointment_partitions(?, ?)", Integer.class,
+                Date.valueOf(thisMonth), Date.valueOf(thisMonth.plusMonths(monthsAhead)));
+    }
+}
@@ -1,21 +1,38 @@
 package com.ihms.appointment.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ihms.appointment.entity.Appointment;
 import com.ihms.appointment.entity.DoctorSchedule;
 import com.ihms.appointment.feign.PatientClient;
 import com.ihms.appointment.repository.AppointmentRepository;
 import com.ihms.appointment.repository.DoctorScheduleRepository;
+import com.ihms.common.cache.PatientSummaryCache;
+import com.ihms.common.concurrent.EnrichmentExecutor;
 import com.ihms.common.dto.AppointmentDTO;
 import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.dto.TimeSlotDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxWriter;
 import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.transaction.AfterCommit;
+import com.ihms.common.web.KeysetPagination;
+import com.ihms.common.web.NdjsonWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +42,32 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final DoctorScheduleRepository doctorScheduleRepository;
     private final PatientClient patientClient;
+    private final PatientSummaryCache patientSummaryCache;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final DoctorAvailabilityIndex availabilityIndex;
+    private final EnrichmentExecutor enrichmentExecutor;
+    private final OutboxWriter outboxWriter;
+
+    static final int DEFAULT_SLOT_MINUTES = 30;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String OVERLAP_CONSTRAINT = "excl_appointments_doctor_overlap";
 
     public List<AppointmentDTO> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(appointmentRepository.findAll());
+    }
+
+    public List<AppointmentDTO> getAppointmentsPage(Long after, Integer limit) {
+        return toDTOs(appointmentRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.after(after), KeysetPagination.limit(limit)));
+    }
+
+    // Each page is its own short read; patient lookups and the response writes happen between them
+    public void exportAppointments(OutputStream out) throws IOException {
+        new NdjsonWriter(out, objectMapper).writePages(EXPORT_CHUNK_SIZE,
+                after -> appointmentRepository.findByIdGreaterThanOrderByIdAsc(after,
+                        KeysetPagination.limit(EXPORT_CHUNK_SIZE)),
+                Appointment::getId, this::toDTOs, entityManager::clear);
     }
 
     public AppointmentDTO getAppointmentById(Long id) {
@@ -39,23 +77,17 @@ public class AppointmentService {
     }
 
     public List<AppointmentDTO> getAppointmentsByPatientId(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(appointmentRepository.findByPatientId(patientId));
     }
 
     public List<AppointmentDTO> getAppointmentsByDoctorId(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(appointmentRepository.findByDoctorId(doctorId));
     }
 
     public List<AppointmentDTO> getAppointmentsByDate(LocalDate date) {
         LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(23, 59, 59);
-        return appointmentRepository.findByDateRange(start, end).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        return toDTOs(appointmentRepository.findByDateRange(start, end));
     }
 
     @Transactional
@@ -67,38 +99,103 @@ public class AppointmentService {
             throw new BadRequestException("Patient not found with id: " + dto.getPatientId());
         }
 
-        // Check for scheduling conflicts
-        List<Appointment> conflicts = appointmentRepository.findByDoctorIdAndDateRange(
-                dto.getDoctorId(),
-                dto.getAppointmentDateTime().minusMinutes(30),
-                dto.getAppointmentDateTime().plusMinutes(30)
-        );
-
-        if (!conflicts.isEmpty()) {
+        // Check for scheduling conflicts against the doctor's actual slot length
+        LocalDateTime start = dto.getAppointmentDateTime();
+        int durationMinutes = slotDurationMinutes(dto.getDoctorId(), start.getDayOfWeek());
+        if (!availabilityIndex.isFree(dto.getDoctorId(), start, start.plusMinutes(durationMinutes))) {
             throw new BadRequestException("Doctor has another appointment at this time");
         }
 
         Appointment appointment = Appointment.builder()
                 .patientId(dto.getPatientId())
                 .doctorId(dto.getDoctorId())
-                .appointmentDateTime(dto.getAppointmentDateTime())
+                .appointmentDateTime(start)
                 .status(Appointment.Status.SCHEDULED)
                 .reason(dto.getReason())
                 .notes(dto.getNotes())
+                .durationMinutes(durationMinutes)
                 .build();
 
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = saveCheckingOverlap(appointment);
+        AfterCommit.run(() -> availabilityIndex.add(saved));
         return toDTO(saved);
     }
 
+    public List<TimeSlotDTO> getAvailableSlots(Long doctorId, LocalDate date) {
+        LocalDateTime now = LocalDateTime.now();
+        BookedIntervals booked = availabilityIndex.bookedOn(doctorId, date);
+        List<TimeSlotDTO> slots = new ArrayList<>();
+        for (DoctorSchedule schedule : doctorScheduleRepository.findByDoctorIdAndDayOfWeek(
+                doctorId, date.getDayOfWeek().getValue())) {
+            if (Boolean.FALSE.equals(schedule.getAvailable())) {
+                continue;
+            }
+            int length = slotLength(schedule);
+            LocalDateTime slotStart = date.atTime(schedule.getStartTime());
+            LocalDateTime dayEnd = date.atTime(schedule.getEndTime());
+            while (!slotStart.plusMinutes(length).isAfter(dayEnd)) {
+                LocalDateTime slotEnd = slotStart.plusMinutes(length);
+                if (slotStart.isAfter(now) && booked.isFree(slotStart, slotEnd)) {
+                    slots.add(TimeSlotDTO.builder()
+                            .doctorId(doctorId)
+                            .doctorName(schedule.getDoctorName())
+                            .specialization(schedule.getSpecialization())
+                            .start(slotStart)
+                            .end(slotEnd)
+                            .build());
+                }
+                slotStart = slotEnd;
+            }
+        }
+        slots.sort(Comparator.comparing(TimeSlotDTO::getStart));
+        return slots;
+    }
+
+    private int slotDurationMinutes(Long doctorId, DayOfWeek dayOfWeek) {
+        return doctorScheduleRepository.findByDoctorIdAndDayOfWeek(doctorId, dayOfWeek.getValue()).stream()
+                .filter(schedule -> !Boolean.FALSE.equals(schedule.getAvailable()))
+                .findFirst()
+                .map(AppointmentService::slotLength)
+                .orElse(DEFAULT_SLOT_MINUTES);
+    }
+
+    private static int slotLength(DoctorSchedule schedule) {
+        Integer minutes = schedule.getSlotDurationMinutes();
+        return minutes != null && minutes > 0 ? minutes : DEFAULT_SLOT_MINUTES;
+    }
+
+    // Flushes so an overlap surfaces here rather than at commit; the exclusion constraint is
+    // authoritative and catches races the in-memory check could not see
+    private Appointment saveCheckingOverlap(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                availabilityIndex.invalidate(appointment.getDoctorId());
+                throw new BadRequestException("Doctor has another appointment at this time");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(OVERLAP_CONSTRAINT);
+    }
+
     @Transactional
     public AppointmentDTO updateAppointmentStatus(Long id, String status) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", id));
 
+        // Moving a cancelled or no-show appointment back to an active status can collide with
+        // a booking made in its slot since
         appointment.setStatus(Appointment.Status.valueOf(status.toUpperCase()));
-        Appointment updated = appointmentRepository.save(appointment);
-        return toDTO(updated);
+        Appointment updated = saveCheckingOverlap(appointment);
+        AfterCommit.run(() -> availabilityIndex.invalidate(updated.getDoctorId()));
+        AppointmentDTO result = toDTO(updated);
+        outboxWriter.append(EventTypes.APPOINTMENT, id, EventTypes.APPOINTMENT_STATUS_CHANGED, result);
+        return result;
     }
 
     @Transactional
@@ -108,6 +205,7 @@ public class AppointmentService {
 
         appointment.setStatus(Appointment.Status.CANCELLED);
         appointmentRepository.save(appointment);
+        AfterCommit.run(() -> availabilityIndex.invalidate(appointment.getDoctorId()));
     }
 
     public List<DoctorSchedule> getDoctorSchedules(Long doctorId) {
@@ -121,14 +219,36 @@ public class AppointmentService {
     private AppointmentDTO toDTO(Appointment appointment) {
         String patientName = "Unknown";
         try {
-            PatientDTO patient = patientClient.getPatientById(appointment.getPatientId()).getData();
+            PatientDTO patient = loadPatient(appointment.getPatientId());
             if (patient != null) {
                 patientName = patient.getFirstName() + " " + patient.getLastName();
             }
         } catch (Exception e) {
             // Use fallback name
         }
+        return toDTO(appointment, patientName);
+    }
+
+    // patient-service has no bulk lookup for this client yet, so resolve a page's patients concurrently
+    private List<AppointmentDTO> toDTOs(List<Appointment> appointments) {
+        Map<Long, PatientDTO> patients = enrichmentExecutor.fetchAll(
+                appointments.stream().map(Appointment::getPatientId).collect(Collectors.toSet()),
+                this::loadPatient);
+        return appointments.stream()
+                .map(appointment -> {
+                    PatientDTO patient = patients.get(appointment.getPatientId());
+                    return toDTO(appointment, patient != null
+                            ? patient.getFirstName() + " " + patient.getLastName()
+                            : "Unknown");
+                })
+                .collect(Collectors.toList());
+    }
+
+    private PatientDTO loadPatient(Long patientId) {
+        return patientSummaryCache.getPatient(patientId, id -> patientClient.getPatientById(id).getData());
+    }
 
+    private AppointmentDTO toDTO(Appointment appointment, String patientName) {
         return AppointmentDTO.builder()
                 .id(appointment.getId())
                 .patientId(appointment.getPatientId())
@@ -0,0 +1,29 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.entity.Appointment;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted start-to-end map of one doctor's active appointments. Active appointments never
+ * overlap, so a candidate interval only has to be checked against the latest booking that
+ * starts before it ends.
+ */
+class BookedIntervals {
+
+    private final ConcurrentSkipListMap<LocalDateTime, LocalDateTime> endByStart = new ConcurrentSkipListMap<>();
+
+    void add(Appointment appointment) {
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        LocalDateTime end = start.plusMinutes(appointment.getDurationMinutes() != null
+                ? appointment.getDurationMinutes() : AppointmentService.DEFAULT_SLOT_MINUTES);
+        endByStart.merge(start, end, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    boolean isFree(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = endByStart.lowerEntry(end);
+        return candidate == null || !candidate.getValue().isAfter(start);
+    }
+}
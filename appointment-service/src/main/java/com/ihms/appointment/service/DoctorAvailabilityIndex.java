@@ -0,0 +1,126 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.entity.Appointment;
+import com.ihms.appointment.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-doctor interval index of active appointments within the booking horizon. Conflict checks
+ * and slot searches are answered from memory; the database exclusion constraint remains the
+ * authority, so an entry missed here (e.g. booked on another instance) is still rejected on insert.
+ * Each doctor's intervals are reloaded after {@code refresh-interval} to pick up such bookings.
+ */
+@Component
+public class DoctorAvailabilityIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final int horizonDays;
+    private final long refreshNanos;
+    private final ConcurrentHashMap<Long, DoctorIntervals> doctors = new ConcurrentHashMap<>();
+
+    public DoctorAvailabilityIndex(AppointmentRepository appointmentRepository,
+                                   @Value("${ihms.appointments.booking-horizon-days:90}") int horizonDays,
+                                   @Value("${ihms.appointments.index-refresh-interval:PT1M}") Duration refreshInterval) {
+        this.appointmentRepository = appointmentRepository;
+        this.horizonDays = horizonDays;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    public boolean isFree(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        DoctorIntervals intervals = intervals(doctorId);
+        if (!intervals.covers(start, end)) {
+            return appointmentRepository.findOverlapping(doctorId, start, end).isEmpty();
+        }
+        return intervals.isFree(start, end);
+    }
+
+    /**
+     * One doctor's bookings around {@code date}: the indexed intervals inside the horizon,
+     * otherwise the day's active appointments loaded in a single query.
+     */
+    BookedIntervals bookedOn(Long doctorId, LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        DoctorIntervals intervals = intervals(doctorId);
+        if (intervals.covers(dayStart, dayEnd)) {
+            return intervals.booked;
+        }
+        BookedIntervals booked = new BookedIntervals();
+        // Start a day early so appointments running past midnight into the day are included
+        appointmentRepository.findActiveByDoctorIdBetween(doctorId, dayStart.minusDays(1), dayEnd)
+                .forEach(booked::add);
+        return booked;
+    }
+
+    public void add(Appointment appointment) {
+        DoctorIntervals intervals = doctors.get(appointment.getDoctorId());
+        if (intervals != null) {
+            intervals.add(appointment);
+        }
+    }
+
+    public void invalidate(Long doctorId) {
+        doctors.remove(doctorId);
+    }
+
+    public LocalDateTime windowStart(LocalDate today) {
+        return today.atStartOfDay();
+    }
+
+    public LocalDateTime windowEnd(LocalDate today) {
+        return today.plusDays(horizonDays + 1L).atStartOfDay();
+    }
+
+    private DoctorIntervals intervals(Long doctorId) {
+        LocalDate today = LocalDate.now();
+        DoctorIntervals current = doctors.get(doctorId);
+        if (current != null && current.isFresh(windowStart(today), refreshNanos)) {
+            return current;
+        }
+
+        LocalDateTime from = windowStart(today);
+        LocalDateTime to = windowEnd(today);
+        DoctorIntervals loaded = new DoctorIntervals(from, to, System.nanoTime());
+        // Start a day early so appointments running past midnight into the window are included
+        appointmentRepository.findActiveByDoctorIdBetween(doctorId, from.minusDays(1), to)
+                .forEach(loaded::add);
+        doctors.put(doctorId, loaded);
+        return loaded;
+    }
+
+    private static final class DoctorIntervals {
+
+        private final LocalDateTime windowStart;
+        private final LocalDateTime windowEnd;
+        private final long loadedAt;
+        private final BookedIntervals booked = new BookedIntervals();
+
+        DoctorIntervals(LocalDateTime windowStart, LocalDateTime windowEnd, long loadedAt) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isFresh(LocalDateTime expectedWindowStart, long refreshNanos) {
+            return windowStart.equals(expectedWindowStart) && System.nanoTime() - loadedAt < refreshNanos;
+        }
+
+        boolean covers(LocalDateTime start, LocalDateTime end) {
+            return !start.isBefore(windowStart) && !end.isAfter(windowEnd);
+        }
+
+        void add(Appointment appointment) {
+            booked.add(appointment);
+        }
+
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            return booked.isFree(start, end);
+        }
+    }
+}
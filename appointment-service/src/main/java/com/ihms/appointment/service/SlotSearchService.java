@@ -0,0 +1,108 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.entity.Appointment;
+import com.ihms.appointment.entity.DoctorSchedule;
+import com.ihms.appointment.repository.AppointmentRepository;
+import com.ihms.appointment.repository.DoctorScheduleRepository;
+import com.ihms.common.dto.TimeSlotDTO;
+import com.ihms.common.exception.BadRequestException;
+import com.ihms.common.web.SearchLimit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the earliest open slots across every doctor of a specialization. Schedules and the
+ * active appointments in the range are loaded in two queries; the gaps are then computed per
+ * doctor in parallel, each doctor contributing at most {@code limit} candidates.
+ */
+@Service
+@RequiredArgsConstructor
+public class SlotSearchService {
+
+    public static final int MAX_RANGE_DAYS = 31;
+    private static final int MAX_SLOT_MINUTES = 480;
+
+    private final DoctorScheduleRepository doctorScheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @Transactional(readOnly = true)
+    public List<TimeSlotDTO> searchSlots(String specialization, LocalDate from, LocalDate to,
+                                         Integer slotMinutes, Integer limit) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new BadRequestException("Specialization is required");
+        }
+        if (to.isBefore(from) || to.isAfter(from.plusDays(MAX_RANGE_DAYS - 1L))) {
+            throw new BadRequestException("Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        int length = slotMinutes != null ? slotMinutes : AppointmentService.DEFAULT_SLOT_MINUTES;
+        if (length <= 0 || length > MAX_SLOT_MINUTES) {
+            throw new BadRequestException("Slot length must be between 1 and " + MAX_SLOT_MINUTES + " minutes");
+        }
+        int maxResults = SearchLimit.clamp(limit);
+
+        Map<Long, List<DoctorSchedule>> schedulesByDoctor = doctorScheduleRepository
+                .findBySpecialization(specialization).stream()
+                .filter(schedule -> !Boolean.FALSE.equals(schedule.getAvailable()))
+                .collect(Collectors.groupingBy(DoctorSchedule::getDoctorId));
+        if (schedulesByDoctor.isEmpty()) {
+            return List.of();
+        }
+
+        // Start a day early so appointments running past midnight into the range are included
+        Map<Long, List<Appointment>> appointmentsByDoctor = appointmentRepository
+                .findActiveByDoctorIdInBetween(schedulesByDoctor.keySet(),
+                        from.minusDays(1).atStartOfDay(), to.plusDays(1).atStartOfDay()).stream()
+                .collect(Collectors.groupingBy(Appointment::getDoctorId));
+
+        LocalDateTime now = LocalDateTime.now();
+        return schedulesByDoctor.entrySet().parallelStream()
+                .flatMap(entry -> openSlots(entry.getValue(),
+                        appointmentsByDoctor.getOrDefault(entry.getKey(), List.of()),
+                        from, to, length, now, maxResults).stream())
+                .sorted(Comparator.comparing(TimeSlotDTO::getStart).thenComparing(TimeSlotDTO::getDoctorId))
+                .limit(maxResults)
+                .collect(Collectors.toList());
+    }
+
+    private static List<TimeSlotDTO> openSlots(List<DoctorSchedule> schedules, List<Appointment> appointments,
+                                               LocalDate from, LocalDate to, int length,
+                                               LocalDateTime now, int maxResults) {
+        BookedIntervals booked = new BookedIntervals();
+        appointments.forEach(booked::add);
+        Map<Integer, List<DoctorSchedule>> schedulesByDay = schedules.stream()
+                .collect(Collectors.groupingBy(DoctorSchedule::getDayOfWeek));
+
+        List<TimeSlotDTO> slots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to) && slots.size() < maxResults; date = date.plusDays(1)) {
+            List<TimeSlotDTO> daySlots = new ArrayList<>();
+            for (DoctorSchedule schedule : schedulesByDay.getOrDefault(date.getDayOfWeek().getValue(), List.of())) {
+                LocalDateTime dayEnd = date.atTime(schedule.getEndTime());
+                for (LocalDateTime start = date.atTime(schedule.getStartTime());
+                     !start.plusMinutes(length).isAfter(dayEnd); start = start.plusMinutes(length)) {
+                    LocalDateTime end = start.plusMinutes(length);
+                    if (start.isAfter(now) && booked.isFree(start, end)) {
+                        daySlots.add(TimeSlotDTO.builder()
+                                .doctorId(schedule.getDoctorId())
+                                .doctorName(schedule.getDoctorName())
+                                .specialization(schedule.getSpecialization())
+                                .start(start)
+                                .end(end)
+                                .build());
+                    }
+                }
+            }
+            daySlots.sort(Comparator.comparing(TimeSlotDTO::getStart));
+            slots.addAll(daySlots);
+        }
+        return slots.size() > maxResults ? slots.subList(0, maxResults) : slots;
+    }
+}
@@ -0,0 +1,13 @@
+-- V2__Add_appointment_overlap_constraint.sql
+-- A doctor can never hold two active appointments whose time ranges overlap.
+-- appointment_date_time is TIMESTAMP without zone, so the range type is tsrange.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+UPDATE appointments SET duration_minutes = 30 WHERE duration_minutes IS NULL;
+ALTER TABLE appointments ALTER COLUMN duration_minutes SET NOT NULL;
+
+ALTER TABLE appointments ADD CONSTRAINT excl_appointments_doctor_overlap
+    EXCLUDE USING gist (
+        doctor_id WITH =,
+        tsrange(appointment_date_time, appointment_date_time + duration_minutes * INTERVAL '1 minute') WITH &&
+    ) WHERE (status NOT IN ('CANCELLED', 'NO_SHOW'));
@@ -0,0 +1,105 @@
+-- V3__Partition_appointments_by_month.sql
+-- appointments becomes a table range-partitioned by month on appointment_date_time, so date
+-- range queries scan only the partitions they touch. The primary key must include the
+-- partition key; ids still come from the original sequence and stay unique.
+-- Exclusion constraints cannot be declared on a partitioned parent, so the doctor overlap
+-- constraint is created on each partition by create_appointment_partitions().
+
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+ALTER TABLE appointments_unpartitioned DROP CONSTRAINT excl_appointments_doctor_overlap;
+ALTER TABLE appointments_unpartitioned RENAME CONSTRAINT appointments_pkey TO appointments_unpartitioned_pkey;
+DROP INDEX idx_appointments_patient, idx_appointments_doctor, idx_appointments_datetime, idx_appointments_status;
+ALTER SEQUENCE appointments_id_seq OWNED BY NONE;
+ALTER TABLE appointments_unpartitioned ALTER COLUMN id DROP DEFAULT;
+
+CREATE TABLE appointments (
+    id BIGINT NOT NULL DEFAULT nextval('appointments_id_seq'),
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_date_time TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'SCHEDULED',
+    reason VARCHAR(500),
+    notes VARCHAR(1000),
+    duration_minutes INTEGER NOT NULL DEFAULT 30,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, appointment_date_time)
+) PARTITION BY RANGE (appointment_date_time);
+
+ALTER SEQUENCE appointments_id_seq OWNED BY appointments.id;
+
+-- Indexes on the parent are created on every partition, present and future
+CREATE INDEX idx_appointments_doctor_datetime ON appointments(doctor_id, appointment_date_time);
+CREATE INDEX idx_appointments_patient ON appointments(patient_id);
+CREATE INDEX idx_appointments_datetime ON appointments(appointment_date_time);
+CREATE INDEX idx_appointments_status ON appointments(status);
+
+-- Catches bookings beyond the pre-created months; rows are moved out when their month is created
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+
+CREATE OR REPLACE FUNCTION add_appointment_overlap_constraint(partition_name TEXT, constraint_suffix TEXT)
+RETURNS VOID AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'excl_appointments_doctor_overlap_' || constraint_suffix) THEN
+        EXECUTE format(
+            'ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ('
+            || 'doctor_id WITH =, '
+            || 'tsrange(appointment_date_time, appointment_date_time + duration_minutes * INTERVAL ''1 minute'') WITH &&'
+            || ') WHERE (status NOT IN (''CANCELLED'', ''NO_SHOW''))',
+            partition_name, 'excl_appointments_doctor_overlap_' || constraint_suffix);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates any missing monthly partitions from from_month through through_month. Safe to call
+-- repeatedly and from several instances at once.
+CREATE OR REPLACE FUNCTION create_appointment_partitions(from_month DATE, through_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::DATE;
+    month_end DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_appointment_partitions'));
+
+    WHILE month_start <= through_month LOOP
+        month_end := (month_start + INTERVAL '1 month')::DATE;
+        partition_name := 'appointments_' || to_char(month_start, '"y"YYYY"m"MM');
+
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                           partition_name);
+            EXECUTE format('INSERT INTO %I SELECT * FROM appointments_default '
+                           || 'WHERE appointment_date_time >= %L AND appointment_date_time < %L',
+                           partition_name, month_start, month_end);
+            DELETE FROM appointments_default
+                WHERE appointment_date_time >= month_start AND appointment_date_time < month_end;
+            EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, month_start, month_end);
+            created := created + 1;
+        END IF;
+
+        PERFORM add_appointment_overlap_constraint(partition_name, to_char(month_start, '"y"YYYY"m"MM'));
+        month_start := month_end;
+    END LOOP;
+
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT add_appointment_overlap_constraint('appointments_default', 'default');
+
+-- Partitions covering existing history plus the next twelve months
+SELECT create_appointment_partitions(LEAST(MIN(appointment_date_time)::DATE, CURRENT_DATE),
+                                     (CURRENT_DATE + INTERVAL '12 months')::DATE)
+FROM appointments_unpartitioned;
+
+INSERT INTO appointments (id, patient_id, doctor_id, appointment_date_time, status, reason, notes,
+                          duration_minutes, created_at, updated_at)
+SELECT id, patient_id, doctor_id, appointment_date_time, status, reason, notes,
+       duration_minutes, created_at, updated_at
+FROM appointments_unpartitioned;
+
+DROP TABLE appointments_unpartitioned;
@@ -0,0 +1,43 @@
+-- V5__Guard_overlaps_across_month_partitions.sql
+-- The exclusion constraints are per partition, so an appointment running past midnight on the
+-- last day of a month is not checked against bookings in the next month's partition. This
+-- trigger covers that gap for appointments that start within a day of a month boundary; the
+-- constraints still handle everything inside one partition.
+CREATE OR REPLACE FUNCTION check_appointment_overlap_across_months()
+RETURNS TRIGGER AS $$
+DECLARE
+    new_end TIMESTAMP := NEW.appointment_date_time + NEW.duration_minutes * INTERVAL '1 minute';
+    month_start TIMESTAMP := date_trunc('month', NEW.appointment_date_time);
+BEGIN
+    IF NEW.status IN ('CANCELLED', 'NO_SHOW')
+            OR (NEW.appointment_date_time >= month_start + INTERVAL '1 day'
+                AND new_end <= month_start + INTERVAL '1 month') THEN
+        RETURN NULL;
+    END IF;
+
+    -- Both sides of a crossing overlap take this lock, so the second waits for the first to commit
+    PERFORM pg_advisory_xact_lock(hashtext('appointment_month_boundary:' || NEW.doctor_id));
+
+    IF EXISTS (SELECT 1 FROM appointments a
+               WHERE a.doctor_id = NEW.doctor_id
+                 AND a.id <> NEW.id
+                 AND a.status NOT IN ('CANCELLED', 'NO_SHOW')
+                 AND a.appointment_date_time >= NEW.appointment_date_time - INTERVAL '1 day'
+                 AND a.appointment_date_time < new_end
+                 AND date_trunc('month', a.appointment_date_time) <> month_start
+                 AND tsrange(a.appointment_date_time, a.appointment_date_time + a.duration_minutes * INTERVAL '1 minute')
+                     && tsrange(NEW.appointment_date_time, new_end)) THEN
+        RAISE EXCEPTION 'conflicting key value violates exclusion constraint "excl_appointments_doctor_overlap_month_boundary"'
+            USING ERRCODE = 'exclusion_violation',
+                  CONSTRAINT = 'excl_appointments_doctor_overlap_month_boundary',
+                  DETAIL = format('Doctor %s already has an appointment overlapping %s', NEW.doctor_id,
+                                  NEW.appointment_date_time);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Defined on the parent so partitions created later inherit it
+CREATE TRIGGER trg_appointments_overlap_across_months
+    AFTER INSERT OR UPDATE OF doctor_id, appointment_date_time, duration_minutes, status ON appointments
+    FOR EACH ROW EXECUTE FUNCTION check_appointment_overlap_across_months();
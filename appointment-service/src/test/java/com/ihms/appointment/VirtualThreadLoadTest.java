@@ -0,0 +1,183 @@
+package com.ihms.appointment;
+
+import com.ihms.common.security.JwtUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /{id} under 1,000 concurrent clients while patient-service answers in 100 ms, once on
+ * Tomcat's platform-thread pool and once with virtual threads enabled. Run with
+ * {@code ./gradlew :appointment-service:benchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class VirtualThreadLoadTest {
+
+    private static final int APPOINTMENTS = 2_000;
+    private static final int CONCURRENCY = 1_000;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 10_000;
+    private static final long PATIENT_LATENCY_MILLIS = 100;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static HttpServer patientService;
+
+    @BeforeAll
+    static void startPatientService() throws IOException {
+        patientService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        patientService.createContext("/", exchange -> {
+            try {
+                Thread.sleep(PATIENT_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String id = exchange.getRequestURI().getPath().substring(1);
+            byte[] body = ("{\"success\":true,\"message\":\"Success\",\"data\":{\"id\":" + id
+                    + ",\"firstName\":\"Load\",\"lastName\":\"Test\"}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        patientService.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        patientService.start();
+    }
+
+    @AfterAll
+    static void stopPatientService() {
+        patientService.stop(0);
+    }
+
+    @Test
+    void virtualThreadsServeMoreConcurrentRequests() throws InterruptedException {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("GET /{id}, %d clients, %d ms patient-service latency, %,d requests%n",
+                CONCURRENCY, PATIENT_LATENCY_MILLIS, MEASURED_REQUESTS);
+        System.out.printf("  platform threads: %s%n", platform);
+        System.out.printf("  virtual threads:  %s%n", virtual);
+
+        assertThat(virtual.failures()).isZero();
+        assertThat(virtual.requestsPerSecond()).isGreaterThan(1.5 * platform.requestsPerSecond());
+    }
+
+    private Result run(boolean virtualThreads) throws InterruptedException {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(AppointmentServiceApplication.class)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.port=0",
+                        "server.tomcat.threads.max=200",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.client.simple.instances.patient-service[0].uri=http://localhost:"
+                                + patientService.getAddress().getPort(),
+                        "ihms.outbox.enabled=false",
+                        // Every request goes to patient-service rather than the near cache
+                        "ihms.cache.patient.ttl=PT0S",
+                        "ihms.cache.patient.max-staleness=PT0S")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+            String token = app.getBean(JwtUtil.class).generateToken("load-test", "ADMIN");
+            List<Long> ids = seedAppointments(app.getBean(JdbcTemplate.class));
+
+            load(port, token, ids, WARMUP_REQUESTS);
+            return load(port, token, ids, MEASURED_REQUESTS);
+        }
+    }
+
+    // One appointment per doctor and patient, so lookups neither overlap nor coalesce
+    private static List<Long> seedAppointments(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO appointments (patient_id, doctor_id, appointment_date_time, status, " +
+                "reason, duration_minutes) " +
+                "SELECT 200000 + i, 200000 + i, ?::date + INTERVAL '10 hours', 'SCHEDULED', 'Load test', 30 " +
+                "FROM generate_series(1, ?) AS i " +
+                "WHERE NOT EXISTS (SELECT 1 FROM appointments WHERE reason = 'Load test')",
+                LocalDate.now().plusDays(7), APPOINTMENTS);
+        return jdbcTemplate.queryForList("SELECT id FROM appointments WHERE reason = 'Load test' ORDER BY id",
+                Long.class);
+    }
+
+    private static Result load(int port, String token, List<Long> ids, int requests) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + "/" + ids.get(i % ids.size())))
+                                .header("Authorization", "Bearer " + token)
+                                .GET()
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(requests * 1e9 / elapsed, latencies[requests / 2] / 1_000_000,
+                latencies[requests * 99 / 100] / 1_000_000, failures.get());
+    }
+
+    private record Result(double requestsPerSecond, long p50Millis, long p99Millis, int failures) {
+
+        @Override
+        public String toString() {
+            return String.format("%,.0f req/s, p50 %d ms, p99 %d ms, %d failed",
+                    requestsPerSecond, p50Millis, p99Millis, failures);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.feign.PatientClient;
+import com.ihms.appointment.repository.AppointmentRepository;
+import com.ihms.common.dto.ApiResponse;
+import com.ihms.common.dto.AppointmentDTO;
+import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "ihms.outbox.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class AppointmentOverlapTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @MockBean
+    private PatientClient patientClient;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void stubPatients() {
+        when(patientClient.getPatientById(anyLong())).thenReturn(ApiResponse.success(
+                PatientDTO.builder().id(1L).firstName("Ada").lastName("Lovelace").build()));
+    }
+
+    @Test
+    void rejectsDoubleBookingOfADoctor() {
+        LocalDateTime start = LocalDate.now().plusDays(7).atTime(10, 0);
+        appointmentService.createAppointment(appointment(101L, start));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(appointment(101L, start.plusMinutes(15))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void reactivatingIntoATakenSlotIsABadRequest() {
+        LocalDateTime start = LocalDate.now().plusDays(8).atTime(11, 0);
+        AppointmentDTO cancelled = appointmentService.createAppointment(appointment(102L, start));
+        appointmentService.cancelAppointment(cancelled.getId());
+        appointmentService.createAppointment(appointment(102L, start));
+
+        assertThatThrownBy(() -> appointmentService.updateAppointmentStatus(cancelled.getId(), "SCHEDULED"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("another appointment");
+        assertThat(appointmentService.getAppointmentById(cancelled.getId()).getStatus()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void rejectsOverlapAcrossAMonthBoundary() {
+        LocalDateTime nextMonth = LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+        insert(103L, nextMonth.minusMinutes(15), 30, "SCHEDULED");
+
+        // The two rows land in different monthly partitions
+        assertThatThrownBy(() -> insert(103L, nextMonth, 30, "SCHEDULED"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("excl_appointments_doctor_overlap");
+        assertThatThrownBy(() -> insert(103L, nextMonth.minusMinutes(45), 45, "SCHEDULED"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        insert(103L, nextMonth.plusMinutes(15), 30, "SCHEDULED");
+        insert(103L, nextMonth, 15, "CANCELLED");
+
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE appointments SET status = 'SCHEDULED' " +
+                "WHERE doctor_id = 103 AND status = 'CANCELLED'"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void findsSlotsAndOverlapsBeyondTheBookingHorizon() {
+        LocalDate date = LocalDate.now().plusDays(200);
+        jdbcTemplate.update("INSERT INTO doctor_schedules (doctor_id, doctor_name, specialization, day_of_week, " +
+                "start_time, end_time, slot_duration_minutes, available) " +
+                "VALUES (104, 'Dr. Test', 'General Medicine', ?, '09:00', '11:00', 30, true)",
+                date.getDayOfWeek().getValue());
+        insert(104L, date.atTime(9, 30), 30, "SCHEDULED");
+        insert(104L, date.atTime(10, 0), 30, "CANCELLED");
+
+        assertThat(appointmentService.getAvailableSlots(104L, date))
+                .extracting(slot -> slot.getStart().toLocalTime().toString())
+                .containsExactly("09:00", "10:00", "10:30");
+        assertThat(appointmentRepository.findOverlapping(104L, date.atTime(9, 45), date.atTime(10, 15))).hasSize(1);
+        assertThat(appointmentRepository.findOverlapping(104L, date.atTime(10, 0), date.atTime(10, 30))).isEmpty();
+    }
+
+    private void insert(Long doctorId, LocalDateTime start, int durationMinutes, String status) {
+        jdbcTemplate.update("INSERT INTO appointments (patient_id, doctor_id, appointment_date_time, status, " +
+                "duration_minutes) VALUES (1, ?, ?, ?, ?)", doctorId, start, status, durationMinutes);
+    }
+
+    static AppointmentDTO appointment(Long doctorId, LocalDateTime start) {
+        return AppointmentDTO.builder()
+                .patientId(1L)
+                .doctorId(doctorId)
+                .appointmentDateTime(start)
+                .reason("Check-up")
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.entity.Appointment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookedIntervalsTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    @Test
+    void emptyScheduleIsFree() {
+        assertThat(new BookedIntervals().isFree(NINE, NINE.plusMinutes(30))).isTrue();
+    }
+
+    @Test
+    void rejectsAnyOverlapWithABooking() {
+        BookedIntervals booked = new BookedIntervals();
+        booked.add(appointment(NINE, 30));
+
+        assertThat(booked.isFree(NINE, NINE.plusMinutes(30))).isFalse();
+        assertThat(booked.isFree(NINE.minusMinutes(15), NINE.plusMinutes(15))).isFalse();
+        assertThat(booked.isFree(NINE.plusMinutes(15), NINE.plusMinutes(45))).isFalse();
+        assertThat(booked.isFree(NINE.plusMinutes(10), NINE.plusMinutes(20))).isFalse();
+        assertThat(booked.isFree(NINE.minusMinutes(30), NINE.plusMinutes(60))).isFalse();
+    }
+
+    @Test
+    void adjacentIntervalsAreFree() {
+        BookedIntervals booked = new BookedIntervals();
+        booked.add(appointment(NINE, 30));
+
+        assertThat(booked.isFree(NINE.minusMinutes(30), NINE)).isTrue();
+        assertThat(booked.isFree(NINE.plusMinutes(30), NINE.plusMinutes(60))).isTrue();
+    }
+
+    @Test
+    void checksGapsBetweenBookings() {
+        BookedIntervals booked = new BookedIntervals();
+        booked.add(appointment(NINE, 30));
+        booked.add(appointment(NINE.plusMinutes(60), 45));
+
+        assertThat(booked.isFree(NINE.plusMinutes(30), NINE.plusMinutes(60))).isTrue();
+        assertThat(booked.isFree(NINE.plusMinutes(30), NINE.plusMinutes(90))).isFalse();
+        assertThat(booked.isFree(NINE.plusMinutes(90), NINE.plusMinutes(120))).isFalse();
+        assertThat(booked.isFree(NINE.plusMinutes(105), NINE.plusMinutes(135))).isTrue();
+    }
+
+    @Test
+    void bookingRunningPastMidnightBlocksTheNextDay() {
+        BookedIntervals booked = new BookedIntervals();
+        LocalDateTime lateEvening = NINE.withHour(23).withMinute(30);
+        booked.add(appointment(lateEvening, 60));
+
+        LocalDateTime midnight = lateEvening.plusMinutes(30);
+        assertThat(booked.isFree(midnight, midnight.plusMinutes(15))).isFalse();
+        assertThat(booked.isFree(midnight.plusMinutes(30), midnight.plusMinutes(60))).isTrue();
+    }
+
+    @Test
+    void missingDurationFallsBackToTheDefaultSlot() {
+        BookedIntervals booked = new BookedIntervals();
+        booked.add(appointment(NINE, null));
+
+        assertThat(booked.isFree(NINE.plusMinutes(AppointmentService.DEFAULT_SLOT_MINUTES - 1L), NINE.plusHours(2))).isFalse();
+        assertThat(booked.isFree(NINE.plusMinutes(AppointmentService.DEFAULT_SLOT_MINUTES), NINE.plusHours(2))).isTrue();
+    }
+
+    @Test
+    void sameStartKeepsTheLongerBooking() {
+        BookedIntervals booked = new BookedIntervals();
+        booked.add(appointment(NINE, 60));
+        booked.add(appointment(NINE, 15));
+
+        assertThat(booked.isFree(NINE.plusMinutes(30), NINE.plusMinutes(45))).isFalse();
+    }
+
+    private static Appointment appointment(LocalDateTime start, Integer durationMinutes) {
+        return Appointment.builder()
+                .patientId(1L)
+                .doctorId(1L)
+                .appointmentDateTime(start)
+                .status(Appointment.Status.SCHEDULED)
+                .durationMinutes(durationMinutes)
+                .build();
+    }
+}
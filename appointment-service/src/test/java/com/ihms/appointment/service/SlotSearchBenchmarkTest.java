@@ -0,0 +1,117 @@
+package com.ihms.appointment.service;
+
+import com.ihms.appointment.repository.AppointmentRepository;
+import com.ihms.appointment.repository.DoctorScheduleRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-slot search for 500 doctors over 30 days, half of every working day booked, against
+ * the per-doctor schedule and appointment lookups the frontend made before. Run with
+ * {@code ./gradlew :appointment-service:benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "ihms.outbox.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class SlotSearchBenchmarkTest {
+
+    private static final int DOCTORS = 500;
+    private static final int DAYS = 30;
+    private static final long FIRST_DOCTOR_ID = 100_000;
+    private static final String SPECIALIZATION = "Benchmark Medicine";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 11;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private SlotSearchService slotSearchService;
+
+    @Autowired
+    private DoctorScheduleRepository doctorScheduleRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void loadDoctors(LocalDate from) {
+        jdbcTemplate.update("INSERT INTO doctor_schedules (doctor_id, doctor_name, specialization, day_of_week, " +
+                "start_time, end_time, slot_duration_minutes, available) " +
+                "SELECT ? + d, 'Dr. Bench ' || d, ?, w, '09:00', '17:00', 30, true " +
+                "FROM generate_series(0, ? - 1) AS d, generate_series(1, 7) AS w",
+                FIRST_DOCTOR_ID, SPECIALIZATION, DOCTORS);
+        // Every other half hour is booked, so each day still has eight open slots per doctor
+        jdbcTemplate.update("INSERT INTO appointments (patient_id, doctor_id, appointment_date_time, status, " +
+                "reason, duration_minutes) " +
+                "SELECT 1, ? + d, ?::date + day * INTERVAL '1 day' + INTERVAL '9 hours' + h * INTERVAL '1 hour', " +
+                "'SCHEDULED', 'Benchmark', 30 " +
+                "FROM generate_series(0, ? - 1) AS d, generate_series(0, ? - 1) AS day, generate_series(0, 7) AS h",
+                FIRST_DOCTOR_ID, from, DOCTORS, DAYS);
+        jdbcTemplate.execute("ANALYZE doctor_schedules");
+        jdbcTemplate.execute("ANALYZE appointments");
+    }
+
+    @Test
+    void bulkSearchBeatsPerDoctorLookups() {
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(DAYS - 1L);
+        loadDoctors(from);
+
+        long bulk = medianMicros(() -> slotSearchService.searchSlots(SPECIALIZATION, from, to, 30, 50).size());
+        long lastPage = medianMicros(() -> slotSearchService.searchSlots(SPECIALIZATION, from, to, 30, 500).size());
+        long perDoctor = medianMicros(() -> perDoctorLookups(from, to));
+
+        System.out.printf("Slot search, %d doctors x %d days (median of %d runs)%n", DOCTORS, DAYS, MEASURED_RUNS);
+        System.out.printf("  bulk search, limit 50:  %,d us%n", bulk);
+        System.out.printf("  bulk search, limit 500: %,d us%n", lastPage);
+        System.out.printf("  per-doctor lookups only: %,d us%n", perDoctor);
+
+        assertThat(slotSearchService.searchSlots(SPECIALIZATION, from, to, 30, 50)).hasSize(50);
+        assertThat(bulk).isLessThan(perDoctor);
+    }
+
+    // What the frontend did per doctor, without the gap computation or the HTTP round trips
+    private int perDoctorLookups(LocalDate from, LocalDate to) {
+        int rows = 0;
+        for (long doctorId = FIRST_DOCTOR_ID; doctorId < FIRST_DOCTOR_ID + DOCTORS; doctorId++) {
+            rows += doctorScheduleRepository.findByDoctorId(doctorId).size();
+            rows += appointmentRepository.findActiveByDoctorIdBetween(doctorId,
+                    from.atStartOfDay(), to.plusDays(1).atStartOfDay()).size();
+        }
+        return rows;
+    }
+
+    private static long medianMicros(IntSupplier search) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            search.getAsInt();
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            search.getAsInt();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2];
+    }
+}
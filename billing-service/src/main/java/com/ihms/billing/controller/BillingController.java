@@ -1,15 +1,21 @@
 package com.ihms.billing.controller;
 
 import com.ihms.billing.service.BillingService;
+import com.ihms.billing.service.PaymentIdempotencyService;
 import com.ihms.common.dto.ApiResponse;
 import com.ihms.common.dto.InvoiceDTO;
+import com.ihms.common.dto.InvoiceSummaryDTO;
+import com.ihms.common.web.KeysetPagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -20,13 +26,26 @@ import java.util.List;
 public class BillingController {
 
     private final BillingService billingService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
 
     @GetMapping("/invoices")
-    @Operation(summary = "Get all invoices")
-    public ResponseEntity<ApiResponse<List<InvoiceDTO>>> getAllInvoices() {
+    @Operation(summary = "Get all invoices, or one keyset page when after/limit are given")
+    public ResponseEntity<ApiResponse<List<InvoiceDTO>>> getAllInvoices(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.isRequested(after, limit)) {
+            return ResponseEntity.ok(ApiResponse.success(billingService.getInvoicesPage(after, limit)));
+        }
         return ResponseEntity.ok(ApiResponse.success(billingService.getAllInvoices()));
     }
 
+    @GetMapping(value = "/invoices", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all invoices as NDJSON")
+    public void exportInvoices(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        billingService.exportInvoices(response.getOutputStream());
+    }
+
     @GetMapping("/invoices/{id}")
     @Operation(summary = "Get invoice by ID")
     public ResponseEntity<ApiResponse<InvoiceDTO>> getInvoiceById(@PathVariable Long id) {
@@ -45,6 +64,15 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(billingService.getInvoicesByStatus(status)));
     }
 
+    @GetMapping("/invoices/status/{status}/summary")
+    @Operation(summary = "Get one keyset page of invoice summaries by status, without line items")
+    public ResponseEntity<ApiResponse<List<InvoiceSummaryDTO>>> getInvoiceSummariesByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(billingService.getInvoiceSummariesByStatus(status, after, limit)));
+    }
+
     @PostMapping("/invoices")
     @Operation(summary = "Create a new invoice")
     public ResponseEntity<ApiResponse<InvoiceDTO>> createInvoice(@RequestBody InvoiceDTO invoiceDTO) {
@@ -52,14 +80,22 @@ public class BillingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Invoice created", created));
     }
 
+    @PostMapping("/invoices/batch")
+    @Operation(summary = "Create many invoices in one transaction")
+    public ResponseEntity<ApiResponse<List<InvoiceDTO>>> createInvoices(@RequestBody List<InvoiceDTO> invoiceDTOs) {
+        List<InvoiceDTO> created = billingService.createInvoices(invoiceDTOs);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Invoices created", created));
+    }
+
     @PostMapping("/invoices/{id}/pay")
-    @Operation(summary = "Process payment for an invoice")
+    @Operation(summary = "Process payment for an invoice; retries with the same Idempotency-Key replay the first response")
     public ResponseEntity<ApiResponse<InvoiceDTO>> processPayment(
             @PathVariable Long id,
             @RequestParam BigDecimal amount,
-            @RequestParam String paymentMethod) {
+            @RequestParam String paymentMethod,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         return ResponseEntity.ok(ApiResponse.success("Payment processed",
-                billingService.processPayment(id, amount, paymentMethod)));
+                paymentIdempotencyService.processPayment(idempotencyKey, id, amount, paymentMethod)));
     }
 
     @DeleteMapping("/invoices/{id}")
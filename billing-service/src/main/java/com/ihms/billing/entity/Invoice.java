@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "invoices")
@@ -20,7 +21,8 @@ import java.util.List;
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoices_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -65,6 +67,9 @@ public class Invoice {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -73,7 +78,8 @@ public class Invoice {
             status = Status.PENDING;
         }
         if (invoiceNumber == null) {
-            invoiceNumber = "INV-" + System.currentTimeMillis();
+            invoiceNumber = "INV-" + System.currentTimeMillis() + "-"
+                    + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         }
     }
 
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "payments")
@@ -54,7 +55,8 @@ public class Payment {
             paymentDate = LocalDateTime.now();
         }
         if (transactionId == null) {
-            transactionId = "TXN-" + System.currentTimeMillis();
+            transactionId = "TXN-" + System.currentTimeMillis() + "-"
+                    + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         }
     }
 
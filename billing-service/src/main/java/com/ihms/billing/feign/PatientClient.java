@@ -5,11 +5,18 @@ import com.ihms.common.dto.PatientDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "patient-service")
 public interface PatientClient {
 
     @GetMapping("/{id}")
     ApiResponse<PatientDTO> getPatientById(@PathVariable("id") Long id);
-}
 
+    @PostMapping("/by-ids")
+    ApiResponse<List<PatientDTO>> getPatientsByIds(@RequestBody Collection<Long> ids);
+}
@@ -1,11 +1,18 @@
 package com.ihms.billing.repository;
 
 import com.ihms.billing.entity.Invoice;
+import com.ihms.common.dto.InvoiceSummaryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +21,14 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<Invoice> findAll();
+
+    @EntityGraph(attributePaths = "items")
     List<Invoice> findByPatientId(Long patientId);
 
+    @EntityGraph(attributePaths = "items")
     List<Invoice> findByStatus(Invoice.Status status);
 
     List<Invoice> findByAppointmentId(Long appointmentId);
@@ -28,5 +41,30 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     @Query("SELECT SUM(i.paidAmount) FROM Invoice i WHERE i.patientId = :patientId")
     java.math.BigDecimal getTotalPaidAmount(Long patientId);
-}
 
+    // Page over ids first; a LIMIT on a collection fetch would be applied in memory
+    @Query("SELECT i.id FROM Invoice i WHERE i.id > :after ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT i FROM Invoice i WHERE i.id IN :ids ORDER BY i.id")
+    List<Invoice> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.ihms.common.dto.InvoiceSummaryDTO(i.id, i.invoiceNumber, i.patientId, i.totalAmount, " +
+           "i.paidAmount, CAST(i.status AS String), i.createdAt, SIZE(i.items)) " +
+           "FROM Invoice i WHERE i.status = :status AND i.id > :after ORDER BY i.id")
+    List<InvoiceSummaryDTO> findSummariesByStatus(@Param("status") Invoice.Status status,
+                                                  @Param("after") Long after, Pageable pageable);
+
+    // Applies a payment in one statement, so concurrent payments serialize on the row lock instead
+    // of overwriting each other's paid amount. Returns 0 if the invoice is settled, cancelled or
+    // the amount exceeds the outstanding balance.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE invoices SET paid_amount = paid_amount + :amount, " +
+           "status = CASE WHEN paid_amount + :amount >= total_amount THEN 'PAID' ELSE 'PARTIAL' END, " +
+           "paid_at = CASE WHEN paid_amount + :amount >= total_amount THEN CURRENT_TIMESTAMP ELSE paid_at END, " +
+           "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id AND status IN ('PENDING', 'PARTIAL', 'OVERDUE') AND paid_amount + :amount <= total_amount",
+           nativeQuery = true)
+    int applyPayment(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,272 @@
+package com.ihms.billing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.dto.AppointmentDTO;
+import com.ihms.common.dto.InvoiceDTO;
+import com.ihms.common.dto.InvoiceItemDTO;
+import com.ihms.common.dto.PrescriptionDTO;
+import com.ihms.common.dto.PrescriptionItemDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Turns "appointment completed" and "prescription dispensed" events into invoices. Each event
+ * becomes one or more pending charges keyed by their source, so redelivered events are dropped
+ * by the unique index. A patient's charges are invoiced together once none has arrived for
+ * {@code window}, and the charges are linked to the invoice in the same transaction that
+ * creates it. Events that cannot become charges are kept in {@code dead_letter_events} rather
+ * than failing the rest of their batch.
+ */
+@Service
+public class AutoInvoicePipeline {
+
+    private static final String COMPLETED = "COMPLETED";
+
+    private final BillingService billingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final BigDecimal consultationFee;
+    private final Duration window;
+    private final int batchSize;
+
+    public AutoInvoicePipeline(BillingService billingService,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${ihms.billing.auto-invoice.enabled:true}") boolean enabled,
+                               @Value("${ihms.billing.auto-invoice.consultation-fee:50.00}") BigDecimal consultationFee,
+                               @Value("${ihms.billing.auto-invoice.window:PT2M}") Duration window,
+                               @Value("${ihms.billing.auto-invoice.batch-size:200}") int batchSize) {
+        this.billingService = billingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.consultationFee = consultationFee;
+        this.window = window;
+        this.batchSize = batchSize;
+    }
+
+    // Forwarded events arrive through the shared /events receiver, one listener call per event
+    @EventListener
+    public void onEvent(OutboxEvent event) {
+        transactionTemplate.executeWithoutResult(status -> accept(List.of(event)));
+    }
+
+    @Transactional
+    public int accept(List<OutboxEvent> events) {
+        List<Charge> charges = new ArrayList<>();
+        List<Object[]> deadLetters = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                charges.addAll(charges(event));
+            } catch (IllegalArgumentException e) {
+                deadLetters.add(deadLetter(event, e));
+            }
+        }
+        // One bad event must not fail the batch, or the sender would redeliver it forever
+        if (!deadLetters.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO dead_letter_events (source, event_id, aggregate_type, aggregate_id, " +
+                    "event_type, payload, error) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (source, event_id) DO NOTHING", deadLetters);
+        }
+        if (charges.isEmpty()) {
+            return 0;
+        }
+
+        int[][] inserted = jdbcTemplate.batchUpdate(
+                "INSERT INTO pending_charges (source_key, patient_id, appointment_id, description, quantity, unit_price) " +
+                        "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (source_key) DO NOTHING",
+                charges, charges.size(), (ps, charge) -> {
+                    ps.setString(1, charge.sourceKey());
+                    ps.setLong(2, charge.patientId());
+                    ps.setObject(3, charge.appointmentId(), Types.BIGINT);
+                    ps.setString(4, charge.description());
+                    ps.setInt(5, charge.quantity());
+                    ps.setBigDecimal(6, charge.unitPrice());
+                });
+        int count = 0;
+        for (int[] batch : inserted) {
+            for (int rows : batch) {
+                count += Math.max(rows, 0);
+            }
+        }
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${ihms.billing.auto-invoice.flush-interval:PT30S}")
+    public void invoicePendingCharges() {
+        if (!enabled) {
+            return;
+        }
+        Integer invoiced;
+        do {
+            invoiced = transactionTemplate.execute(status -> invoiceBatch());
+        } while (invoiced != null && invoiced == batchSize);
+    }
+
+    private int invoiceBatch() {
+        Timestamp quietSince = Timestamp.valueOf(LocalDateTime.now().minus(window));
+        List<Long> candidates = jdbcTemplate.queryForList(
+                "SELECT patient_id FROM pending_charges WHERE invoice_id IS NULL " +
+                        "GROUP BY patient_id HAVING MAX(received_at) < ? ORDER BY MIN(received_at) LIMIT ?",
+                Long.class, quietSince, batchSize);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        // Claims whole patients, so two instances never split one patient's window into two
+        // invoices; patients another instance holds are left for its run
+        List<Long> patientIds = jdbcTemplate.queryForList(
+                "SELECT patient_id FROM unnest(?::bigint[]) AS c(patient_id) " +
+                        "WHERE pg_try_advisory_xact_lock(hashtext('pending_charges:' || patient_id))",
+                Long.class, (Object) candidates.toArray(Long[]::new));
+        if (patientIds.isEmpty()) {
+            return 0;
+        }
+
+        // Re-read under the claim: an earlier holder may have invoiced the patient, or a new
+        // charge may have reopened the window
+        List<PendingCharge> pending = jdbcTemplate.query(
+                "SELECT id, patient_id, appointment_id, description, quantity, unit_price FROM pending_charges p " +
+                        "WHERE invoice_id IS NULL AND patient_id = ANY(?) AND NOT EXISTS (" +
+                        "SELECT 1 FROM pending_charges n WHERE n.patient_id = p.patient_id " +
+                        "AND n.invoice_id IS NULL AND n.received_at >= ?) ORDER BY id FOR UPDATE",
+                (rs, rowNum) -> new PendingCharge(rs.getLong("id"), rs.getLong("patient_id"),
+                        (Long) rs.getObject("appointment_id"), rs.getString("description"),
+                        rs.getInt("quantity"), rs.getBigDecimal("unit_price")),
+                patientIds.toArray(Long[]::new), quietSince);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<PendingCharge>> byPatient = pending.stream()
+                .collect(Collectors.groupingBy(PendingCharge::patientId, LinkedHashMap::new, Collectors.toList()));
+        List<InvoiceDTO> invoices = byPatient.entrySet().stream()
+                .map(entry -> toInvoice(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        List<Long> invoiceIds = billingService.insertInvoices(invoices);
+
+        List<Object[]> links = new ArrayList<>(pending.size());
+        int i = 0;
+        for (List<PendingCharge> charges : byPatient.values()) {
+            Long invoiceId = invoiceIds.get(i++);
+            charges.forEach(charge -> links.add(new Object[]{invoiceId, charge.id()}));
+        }
+        jdbcTemplate.batchUpdate("UPDATE pending_charges SET invoice_id = ? WHERE id = ?", links);
+        return byPatient.size();
+    }
+
+    private static InvoiceDTO toInvoice(Long patientId, List<PendingCharge> charges) {
+        List<Long> appointmentIds = charges.stream()
+                .map(PendingCharge::appointmentId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        return InvoiceDTO.builder()
+                .patientId(patientId)
+                .appointmentId(appointmentIds.size() == 1 ? appointmentIds.get(0) : null)
+                .items(charges.stream()
+                        .map(charge -> InvoiceItemDTO.builder()
+                                .description(charge.description())
+                                .quantity(charge.quantity())
+                                .unitPrice(charge.unitPrice())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private List<Charge> charges(OutboxEvent event) {
+        if (EventTypes.APPOINTMENT_STATUS_CHANGED.equals(event.getEventType())) {
+            return appointmentCharge(event, read(event, AppointmentDTO.class)).map(List::of).orElse(List.of());
+        }
+        if (EventTypes.PRESCRIPTION_DISPENSED.equals(event.getEventType())) {
+            return prescriptionCharges(event, read(event, PrescriptionDTO.class));
+        }
+        return List.of();
+    }
+
+    private Optional<Charge> appointmentCharge(OutboxEvent event, AppointmentDTO appointment) {
+        if (!COMPLETED.equals(appointment.getStatus())) {
+            return Optional.empty();
+        }
+        if (appointment.getPatientId() == null) {
+            throw new IllegalArgumentException("Completed appointment without a patient");
+        }
+        return Optional.of(new Charge(sourceKey(event, "consultation"), appointment.getPatientId(),
+                appointment.getId(), "Consultation", 1, consultationFee));
+    }
+
+    private static List<Charge> prescriptionCharges(OutboxEvent event, PrescriptionDTO prescription) {
+        if (prescription.getItems() == null) {
+            return List.of();
+        }
+        if (prescription.getPatientId() == null) {
+            throw new IllegalArgumentException("Dispensed prescription without a patient");
+        }
+        return prescription.getItems().stream()
+                .filter(item -> item.getUnitPrice() != null && item.getQuantity() != null && item.getQuantity() > 0)
+                .map(item -> new Charge(sourceKey(event, "item-" + item.getId()), prescription.getPatientId(),
+                        null, description(item), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList());
+    }
+
+    private static String description(PrescriptionItemDTO item) {
+        return "Medication: " + item.getDrugName();
+    }
+
+    private static String sourceKey(OutboxEvent event, String part) {
+        return event.getAggregateType() + ":" + event.getAggregateId() + ":" + event.getEventType() + ":" + part;
+    }
+
+    private <T> T read(OutboxEvent event, Class<T> type) {
+        T value;
+        try {
+            value = event.getPayload() != null ? objectMapper.readValue(event.getPayload(), type) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable " + event.getEventType() + " payload", e);
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Empty " + event.getEventType() + " payload");
+        }
+        return value;
+    }
+
+    private static Object[] deadLetter(OutboxEvent event, IllegalArgumentException error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return new Object[]{event.getSource(), event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), message.length() > 500 ? message.substring(0, 500) : message};
+    }
+
+    private record Charge(String sourceKey, Long patientId, Long appointmentId, String description,
+                          int quantity, BigDecimal unitPrice) {
+    }
+
+    private record PendingCharge(Long id, Long patientId, Long appointmentId, String description,
+                                 int quantity, BigDecimal unitPrice) {
+    }
+}
@@ -1,23 +1,40 @@
 package com.ihms.billing.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ihms.billing.entity.Invoice;
 import com.ihms.billing.entity.InvoiceItem;
 import com.ihms.billing.entity.Payment;
 import com.ihms.billing.feign.PatientClient;
 import com.ihms.billing.repository.InvoiceRepository;
 import com.ihms.billing.repository.PaymentRepository;
+import com.ihms.common.cache.PatientSummaryCache;
 import com.ihms.common.dto.InvoiceDTO;
 import com.ihms.common.dto.InvoiceItemDTO;
+import com.ihms.common.dto.InvoiceSummaryDTO;
 import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxWriter;
 import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.transaction.ConflictRetry;
+import com.ihms.common.web.KeysetPagination;
+import com.ihms.common.web.NdjsonWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,11 +44,49 @@ public class BillingService {
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
     private final PatientClient patientClient;
+    private final PatientSummaryCache patientSummaryCache;
+    private final OutboxWriter outboxWriter;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int INSERT_CHUNK_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 20000;
+    static final int PAYMENT_ATTEMPTS = 3;
 
     public List<InvoiceDTO> getAllInvoices() {
-        return invoiceRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(invoiceRepository.findAll());
+    }
+
+    public List<InvoiceDTO> getInvoicesPage(Long after, Integer limit) {
+        List<Long> ids = invoiceRepository.findIdsAfter(KeysetPagination.after(after), KeysetPagination.limit(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toDTOs(invoiceRepository.findWithItemsByIdIn(ids));
+    }
+
+    public List<InvoiceSummaryDTO> getInvoiceSummariesByStatus(String status, Long after, Integer limit) {
+        List<InvoiceSummaryDTO> summaries = invoiceRepository.findSummariesByStatus(
+                Invoice.Status.valueOf(status.toUpperCase()), KeysetPagination.after(after), KeysetPagination.limit(limit));
+        Map<Long, String> patientNames = resolvePatientNames(summaries.stream()
+                .map(InvoiceSummaryDTO::getPatientId)
+                .collect(Collectors.toSet()));
+        summaries.forEach(summary ->
+                summary.setPatientName(patientNames.getOrDefault(summary.getPatientId(), "Unknown")));
+        return summaries;
+    }
+
+    // Each page is read in its own short transaction; patient lookups and the response writes
+    // happen between them
+    public void exportInvoices(OutputStream out) throws IOException {
+        new NdjsonWriter(out, objectMapper).writePages(EXPORT_CHUNK_SIZE,
+                after -> transactionTemplate.execute(status -> {
+                    List<Long> ids = invoiceRepository.findIdsAfter(after, KeysetPagination.limit(EXPORT_CHUNK_SIZE));
+                    return ids.isEmpty() ? List.<Invoice>of() : invoiceRepository.findWithItemsByIdIn(ids);
+                }),
+                Invoice::getId, this::toDTOs, entityManager::clear);
     }
 
     public InvoiceDTO getInvoiceById(Long id) {
@@ -41,19 +96,77 @@ public class BillingService {
     }
 
     public List<InvoiceDTO> getInvoicesByPatientId(Long patientId) {
-        return invoiceRepository.findByPatientId(patientId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(invoiceRepository.findByPatientId(patientId));
     }
 
     public List<InvoiceDTO> getInvoicesByStatus(String status) {
-        return invoiceRepository.findByStatus(Invoice.Status.valueOf(status.toUpperCase())).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(invoiceRepository.findByStatus(Invoice.Status.valueOf(status.toUpperCase())));
     }
 
     @Transactional
     public InvoiceDTO createInvoice(InvoiceDTO dto) {
+        Invoice saved = invoiceRepository.save(buildInvoice(dto));
+        return toDTO(saved);
+    }
+
+    /**
+     * Creates many invoices in one transaction. Ids come from pooled sequences so the inserts are
+     * sent as JDBC batches; the persistence context is flushed and cleared per chunk to keep
+     * memory flat for large charge-capture runs. The response, with its patient lookups, is built
+     * after commit so the write transaction never waits on patient-service.
+     */
+    public List<InvoiceDTO> createInvoices(List<InvoiceDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new BadRequestException("At least one invoice is required");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+        List<Long> ids = transactionTemplate.execute(status -> insertInvoices(dtos));
+
+        List<Invoice> created = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += INSERT_CHUNK_SIZE) {
+            created.addAll(invoiceRepository.findWithItemsByIdIn(
+                    ids.subList(from, Math.min(from + INSERT_CHUNK_SIZE, ids.size()))));
+        }
+        return toDTOs(created);
+    }
+
+    /**
+     * Batch insert for internal pipelines that only need the new ids, skipping the patient
+     * lookups {@link #createInvoices} does to build its response.
+     */
+    @Transactional
+    public List<Long> insertInvoices(List<InvoiceDTO> dtos) {
+        return persistInChunks(dtos, chunk -> chunk.stream().map(Invoice::getId).collect(Collectors.toList()));
+    }
+
+    private <R> List<R> persistInChunks(List<InvoiceDTO> dtos, Function<List<Invoice>, List<R>> afterFlush) {
+        List<R> created = new ArrayList<>(dtos.size());
+        List<Invoice> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        for (InvoiceDTO dto : dtos) {
+            Invoice invoice = buildInvoice(dto);
+            entityManager.persist(invoice);
+            chunk.add(invoice);
+            if (chunk.size() == INSERT_CHUNK_SIZE) {
+                created.addAll(flushChunk(chunk, afterFlush));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created.addAll(flushChunk(chunk, afterFlush));
+        }
+        return created;
+    }
+
+    private <R> List<R> flushChunk(List<Invoice> chunk, Function<List<Invoice>, List<R>> afterFlush) {
+        entityManager.flush();
+        List<R> results = afterFlush.apply(chunk);
+        entityManager.clear();
+        chunk.clear();
+        return results;
+    }
+
+    private Invoice buildInvoice(InvoiceDTO dto) {
         Invoice invoice = Invoice.builder()
                 .patientId(dto.getPatientId())
                 .appointmentId(dto.getAppointmentId())
@@ -80,41 +193,68 @@ public class BillingService {
         invoice.setTaxAmount(BigDecimal.ZERO);
         invoice.setDiscountAmount(BigDecimal.ZERO);
         invoice.setTotalAmount(total);
-
-        Invoice saved = invoiceRepository.save(invoice);
-        return toDTO(saved);
+        return invoice;
     }
 
-    @Transactional
+    /**
+     * Applies a payment with a single conditional UPDATE, so concurrent partial payments add up
+     * exactly. Retried on conflict when called outside a transaction; the patient name is
+     * resolved after commit so the remote lookup never runs under the invoice row lock.
+     */
     public InvoiceDTO processPayment(Long invoiceId, BigDecimal amount, String paymentMethod) {
-        Invoice invoice = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        return withPatientName(recordPayment(invoiceId, amount, paymentMethod));
+    }
 
-        if (invoice.getStatus() == Invoice.Status.PAID) {
-            throw new BadRequestException("Invoice is already paid");
+    /**
+     * {@link #processPayment} without the patient name, for callers that commit later and
+     * resolve it with {@link #withPatientName} afterwards.
+     */
+    public InvoiceDTO recordPayment(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        return ConflictRetry.execute(transactionTemplate, PAYMENT_ATTEMPTS,
+                status -> applyPayment(invoiceId, amount, paymentMethod));
+    }
+
+    public InvoiceDTO withPatientName(InvoiceDTO invoice) {
+        String patientName = resolvePatientNames(Set.of(invoice.getPatientId()))
+                .getOrDefault(invoice.getPatientId(), "Unknown");
+        return invoice.toBuilder().patientName(patientName).build();
+    }
+
+    // The conditional UPDATE locks the invoice row until commit, so the event is written before
+    // it and only the payment row and the re-read follow it
+    private InvoiceDTO applyPayment(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BadRequestException("Payment amount must be positive");
+        }
+        Payment.PaymentMethod method = Payment.PaymentMethod.valueOf(paymentMethod.toUpperCase());
+
+        outboxWriter.append(EventTypes.INVOICE, invoiceId, EventTypes.PAYMENT_PROCESSED,
+                Map.of("invoiceId", invoiceId, "amount", amount, "paymentMethod", method.name()));
+
+        if (invoiceRepository.applyPayment(invoiceId, amount) == 0) {
+            Invoice invoice = invoiceRepository.findById(invoiceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+            if (invoice.getStatus() == Invoice.Status.PAID) {
+                throw new BadRequestException("Invoice is already paid");
+            }
+            if (invoice.getStatus() == Invoice.Status.CANCELLED) {
+                throw new BadRequestException("Cannot pay a cancelled invoice");
+            }
+            throw new BadRequestException("Payment exceeds the outstanding balance of "
+                    + invoice.getTotalAmount().subtract(invoice.getPaidAmount()));
         }
 
         Payment payment = Payment.builder()
-                .invoice(invoice)
+                .invoice(invoiceRepository.getReferenceById(invoiceId))
                 .amount(amount)
-                .paymentMethod(Payment.PaymentMethod.valueOf(paymentMethod.toUpperCase()))
+                .paymentMethod(method)
                 .status(Payment.Status.COMPLETED)
                 .build();
-
         paymentRepository.save(payment);
 
-        BigDecimal newPaidAmount = invoice.getPaidAmount().add(amount);
-        invoice.setPaidAmount(newPaidAmount);
-
-        if (newPaidAmount.compareTo(invoice.getTotalAmount()) >= 0) {
-            invoice.setStatus(Invoice.Status.PAID);
-            invoice.setPaidAt(LocalDateTime.now());
-        } else {
-            invoice.setStatus(Invoice.Status.PARTIAL);
-        }
-
-        Invoice updated = invoiceRepository.save(invoice);
-        return toDTO(updated);
+        Invoice updated = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        return toDTO(updated, null);
     }
 
     @Transactional
@@ -147,7 +287,8 @@ public class BillingService {
 
         String patientName = "Unknown";
         try {
-            PatientDTO patient = patientClient.getPatientById(patientId).getData();
+            PatientDTO patient = patientSummaryCache.getPatient(patientId,
+                    id -> patientClient.getPatientById(id).getData());
             if (patient != null) {
                 patientName = patient.getFirstName() + " " + patient.getLastName();
             }
@@ -164,17 +305,38 @@ public class BillingService {
         );
     }
 
-    private InvoiceDTO toDTO(Invoice invoice) {
-        String patientName = "Unknown";
+    private List<InvoiceDTO> toDTOs(List<Invoice> invoices) {
+        Set<Long> patientIds = invoices.stream()
+                .map(Invoice::getPatientId)
+                .collect(Collectors.toSet());
+        Map<Long, String> patientNames = resolvePatientNames(patientIds);
+
+        return invoices.stream()
+                .map(invoice -> toDTO(invoice, patientNames.getOrDefault(invoice.getPatientId(), "Unknown")))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, String> resolvePatientNames(Set<Long> patientIds) {
+        Map<Long, String> names = new HashMap<>();
+        if (patientIds.isEmpty()) {
+            return names;
+        }
         try {
-            PatientDTO patient = patientClient.getPatientById(invoice.getPatientId()).getData();
-            if (patient != null) {
-                patientName = patient.getFirstName() + " " + patient.getLastName();
-            }
+            Map<Long, PatientDTO> patients = patientSummaryCache.getPatients(patientIds,
+                    missing -> patientClient.getPatientsByIds(missing).getData());
+            patients.forEach((id, patient) ->
+                    names.put(id, patient.getFirstName() + " " + patient.getLastName()));
         } catch (Exception e) {
             // Use fallback
         }
+        return names;
+    }
 
+    private InvoiceDTO toDTO(Invoice invoice) {
+        return toDTOs(List.of(invoice)).get(0);
+    }
+
+    private InvoiceDTO toDTO(Invoice invoice, String patientName) {
         List<InvoiceItemDTO> items = invoice.getItems().stream()
                 .map(item -> InvoiceItemDTO.builder()
                         .id(item.getId())
@@ -199,4 +361,3 @@ public class BillingService {
                 .build();
     }
 }
-
@@ -0,0 +1,160 @@
+package com.ihms.billing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.cache.NearCache;
+import com.ihms.common.dto.InvoiceDTO;
+import com.ihms.common.exception.BadRequestException;
+import com.ihms.common.transaction.ConflictRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Makes {@code POST /invoices/{id}/pay} safe to retry. The first request with a given
+ * {@code Idempotency-Key} claims the key in the payment's own transaction and stores the
+ * response; replays get that stored response without touching the invoice. A concurrent replay
+ * blocks on the key's unique index until the first request commits or rolls back. Recently
+ * used keys are also held in memory so replay storms do not reach the database. Responses are
+ * stored without the patient name, which is resolved after commit.
+ */
+@Service
+public class PaymentIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final BillingService billingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final NearCache<String, StoredPayment> recentKeys;
+    private final Duration retention;
+
+    public PaymentIdempotencyService(BillingService billingService,
+                                     JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${ihms.billing.idempotency.cache-size:10000}") int cacheSize,
+                                     @Value("${ihms.billing.idempotency.cache-ttl:PT10M}") Duration cacheTtl,
+                                     @Value("${ihms.billing.idempotency.retention:P1D}") Duration retention) {
+        this.billingService = billingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recentKeys = new NearCache<>("payment-idempotency", cacheSize, cacheTtl, cacheTtl, meterRegistry);
+        this.retention = retention;
+    }
+
+    public InvoiceDTO processPayment(String idempotencyKey, Long invoiceId, BigDecimal amount, String paymentMethod) {
+        if (idempotencyKey == null) {
+            return billingService.processPayment(invoiceId, amount, paymentMethod);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(invoiceId, amount, paymentMethod);
+
+        StoredPayment stored = recentKeys.get(idempotencyKey, this::findCompleted);
+        if (stored != null) {
+            return billingService.withPatientName(replay(stored, requestHash));
+        }
+
+        // The key claim rolls back with a conflicted attempt, so each retry claims it afresh
+        StoredPayment result = ConflictRetry.execute(transactionTemplate, BillingService.PAYMENT_ATTEMPTS, status -> {
+            int claimed = jdbcTemplate.update("INSERT INTO payment_idempotency_keys (idempotency_key, request_hash) " +
+                    "VALUES (?, ?) ON CONFLICT (idempotency_key) DO NOTHING", idempotencyKey, requestHash);
+            if (claimed == 0) {
+                return findStored(idempotencyKey);
+            }
+            InvoiceDTO invoice = billingService.recordPayment(invoiceId, amount, paymentMethod);
+            jdbcTemplate.update("UPDATE payment_idempotency_keys SET response = CAST(? AS jsonb) WHERE idempotency_key = ?",
+                    toJson(invoice), idempotencyKey);
+            return new StoredPayment(requestHash, invoice);
+        });
+        if (result == null) {
+            throw new BadRequestException("A payment with this Idempotency-Key is still being processed");
+        }
+        if (result.response() != null) {
+            recentKeys.put(idempotencyKey, result);
+        }
+        return billingService.withPatientName(replay(result, requestHash));
+    }
+
+    @Scheduled(fixedDelayString = "${ihms.billing.idempotency.cleanup-interval:PT1H}")
+    public void purgeExpiredKeys() {
+        jdbcTemplate.update("DELETE FROM payment_idempotency_keys WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+    }
+
+    private StoredPayment findStored(String idempotencyKey) {
+        List<StoredPayment> rows = jdbcTemplate.query(
+                "SELECT request_hash, response FROM payment_idempotency_keys WHERE idempotency_key = ?",
+                (rs, rowNum) -> new StoredPayment(rs.getString("request_hash"), fromJson(rs.getString("response"))),
+                idempotencyKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Only finished payments are cached; an in-flight claim must be re-read until it completes
+    private StoredPayment findCompleted(String idempotencyKey) {
+        StoredPayment stored = findStored(idempotencyKey);
+        return stored == null || stored.response() == null ? null : stored;
+    }
+
+    private static InvoiceDTO replay(StoredPayment stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different payment");
+        }
+        if (stored.response() == null) {
+            throw new BadRequestException("A payment with this Idempotency-Key is still being processed");
+        }
+        return stored.response();
+    }
+
+    private static String requestHash(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        String canonical = invoiceId + "|" + amount.stripTrailingZeros().toPlainString() + "|"
+                + paymentMethod.toUpperCase();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(InvoiceDTO invoice) {
+        try {
+            return objectMapper.writeValueAsString(invoice);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store payment response", e);
+        }
+    }
+
+    private InvoiceDTO fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, InvoiceDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored payment response is unreadable", e);
+        }
+    }
+
+    private record StoredPayment(String requestHash, InvoiceDTO response) {
+    }
+}
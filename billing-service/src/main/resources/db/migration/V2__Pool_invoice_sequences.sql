@@ -0,0 +1,4 @@
+-- V2__Pool_invoice_sequences.sql
+-- Match the allocationSize of the entity sequence generators so Hibernate can batch inserts
+ALTER SEQUENCE invoices_id_seq INCREMENT BY 50;
+ALTER SEQUENCE invoice_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,17 @@
+-- V4__Create_pending_charges.sql
+-- Billable charges received from other services' events, waiting to be grouped into invoices.
+-- source_key identifies the originating change, so redelivered events are ignored.
+CREATE TABLE pending_charges (
+    id BIGSERIAL PRIMARY KEY,
+    source_key VARCHAR(200) NOT NULL,
+    patient_id BIGINT NOT NULL,
+    appointment_id BIGINT,
+    description VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    invoice_id BIGINT REFERENCES invoices(id)
+);
+
+CREATE UNIQUE INDEX uk_pending_charges_source_key ON pending_charges(source_key);
+CREATE INDEX idx_pending_charges_uninvoiced ON pending_charges(patient_id, received_at) WHERE invoice_id IS NULL;
@@ -0,0 +1,11 @@
+-- V5__Create_payment_idempotency_keys.sql
+-- One row per Idempotency-Key sent with a payment. The row is written in the same transaction
+-- as the payment, so a key is either absent or bound to a committed payment and its response.
+CREATE TABLE payment_idempotency_keys (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response JSONB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_payment_idempotency_keys_created_at ON payment_idempotency_keys(created_at);
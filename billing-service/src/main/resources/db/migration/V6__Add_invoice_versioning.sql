@@ -0,0 +1,4 @@
+-- V6__Add_invoice_versioning.sql
+-- Optimistic lock column; payments bump it in the same UPDATE that applies the amount
+ALTER TABLE invoices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+UPDATE invoices SET paid_amount = 0 WHERE paid_amount IS NULL;
@@ -0,0 +1,16 @@
+-- V7__Create_dead_letter_events.sql
+-- Forwarded events the auto-invoice pipeline could not turn into charges. They are kept for
+-- inspection instead of failing the batch, which the sender would otherwise retry forever.
+CREATE TABLE dead_letter_events (
+    id BIGSERIAL PRIMARY KEY,
+    source VARCHAR(100),
+    event_id BIGINT,
+    aggregate_type VARCHAR(50),
+    aggregate_id VARCHAR(100),
+    event_type VARCHAR(100),
+    payload TEXT,
+    error VARCHAR(500) NOT NULL,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX uk_dead_letter_events_source_event ON dead_letter_events(source, event_id);
@@ -0,0 +1,117 @@
+package com.ihms.billing.service;
+
+import com.ihms.billing.feign.PatientClient;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "ihms.outbox.enabled=false",
+        "ihms.billing.auto-invoice.flush-interval=PT1H",
+        "ihms.billing.auto-invoice.batch-size=25"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class AutoInvoicePipelineTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @MockBean
+    private PatientClient patientClient;
+
+    @Autowired
+    private AutoInvoicePipeline autoInvoicePipeline;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM pending_charges");
+        jdbcTemplate.update("DELETE FROM dead_letter_events");
+    }
+
+    @Test
+    void deadLettersUnreadableEventsAndAcceptsTheRest() {
+        List<OutboxEvent> batch = List.of(
+                event(1L, EventTypes.APPOINTMENT_STATUS_CHANGED, "{\"id\":10,\"patientId\":7,\"status\":\"COMPLETED\"}"),
+                event(2L, EventTypes.APPOINTMENT_STATUS_CHANGED, "{not json"),
+                event(3L, EventTypes.PRESCRIPTION_DISPENSED, "null"),
+                event(4L, EventTypes.APPOINTMENT_STATUS_CHANGED, "{\"id\":11,\"status\":\"COMPLETED\"}"));
+
+        assertThat(autoInvoicePipeline.accept(batch)).isEqualTo(1);
+        // Redelivery of the same batch adds nothing
+        assertThat(autoInvoicePipeline.accept(batch)).isZero();
+
+        assertThat(jdbcTemplate.queryForList("SELECT event_id FROM dead_letter_events ORDER BY event_id", Long.class))
+                .containsExactly(2L, 3L, 4L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_charges WHERE patient_id = 7",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRunsInvoiceEachPatientOnce() throws Exception {
+        int patients = 60;
+        jdbcTemplate.update("INSERT INTO pending_charges (source_key, patient_id, description, quantity, unit_price, " +
+                "received_at) SELECT 'test:' || p || ':' || c, 900000 + p, 'Charge ' || c, 1, 10.00, " +
+                "CURRENT_TIMESTAMP - INTERVAL '1 hour' FROM generate_series(1, ?) AS p, generate_series(1, 5) AS c",
+                patients);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService runners = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                autoInvoicePipeline.invoicePendingCharges();
+            }, runners));
+        }
+        start.countDown();
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        runners.shutdown();
+        // Patients skipped because another run held them are picked up by the next run
+        autoInvoicePipeline.invoicePendingCharges();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_charges WHERE invoice_id IS NULL",
+                Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT COUNT(DISTINCT invoice_id) FROM pending_charges " +
+                "WHERE patient_id > 900000 GROUP BY patient_id", Integer.class))
+                .hasSize(patients)
+                .containsOnly(1);
+    }
+
+    private static OutboxEvent event(Long id, String eventType, String payload) {
+        return OutboxEvent.builder()
+                .id(id)
+                .source("appointment-service")
+                .aggregateType(EventTypes.APPOINTMENT)
+                .aggregateId(String.valueOf(id))
+                .eventType(eventType)
+                .payload(payload)
+                .build();
+    }
+}
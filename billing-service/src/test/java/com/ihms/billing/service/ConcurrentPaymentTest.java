@@ -0,0 +1,129 @@
+package com.ihms.billing.service;
+
+import com.ihms.billing.feign.PatientClient;
+import com.ihms.common.dto.ApiResponse;
+import com.ihms.common.dto.InvoiceDTO;
+import com.ihms.common.dto.InvoiceItemDTO;
+import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "ihms.outbox.enabled=false",
+        // A thousand payments queue on one invoice row behind a small pool
+        "spring.datasource.hikari.connection-timeout=60000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class ConcurrentPaymentTest {
+
+    private static final int PAYMENTS = 1_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @MockBean
+    private PatientClient patientClient;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentPartialPaymentsAddUpExactly() throws Exception {
+        Long invoiceId = createInvoice(new BigDecimal("1000.00"));
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+
+        List<CompletableFuture<Void>> payments = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PAYMENTS; i++) {
+                payments.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                        billingService.processPayment(invoiceId, BigDecimal.ONE, "CASH");
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(payments.toArray(CompletableFuture[]::new)).get();
+        }
+
+        assertThat(failures.get()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT paid_amount FROM invoices WHERE id = ?",
+                BigDecimal.class, invoiceId)).isEqualByComparingTo("1000.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM invoices WHERE id = ?",
+                String.class, invoiceId)).isEqualTo("PAID");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE invoice_id = ?",
+                Integer.class, invoiceId)).isEqualTo(PAYMENTS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE aggregate_id = ? " +
+                "AND event_type = ?", Integer.class, String.valueOf(invoiceId), EventTypes.PAYMENT_PROCESSED))
+                .isEqualTo(PAYMENTS);
+
+        // A settled invoice takes no further payments, and the rejection leaves nothing behind
+        assertThatThrownBy(() -> billingService.processPayment(invoiceId, BigDecimal.ONE, "CASH"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already paid");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE invoice_id = ?",
+                Integer.class, invoiceId)).isEqualTo(PAYMENTS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE aggregate_id = ?",
+                Integer.class, String.valueOf(invoiceId))).isEqualTo(PAYMENTS);
+    }
+
+    @Test
+    void resolvesThePatientNameAfterReleasingTheInvoiceLock() {
+        Long invoiceId = createInvoice(new BigDecimal("100.00"));
+        when(patientClient.getPatientsByIds(any())).thenAnswer(invocation -> {
+            // Fails if the payment's transaction still holds the invoice row
+            jdbcTemplate.queryForObject("SELECT id FROM invoices WHERE id = ? FOR UPDATE NOWAIT",
+                    Long.class, invoiceId);
+            return ApiResponse.success(List.of(PatientDTO.builder()
+                    .id(42L).firstName("Ada").lastName("Lovelace").build()));
+        });
+
+        InvoiceDTO paid = billingService.processPayment(invoiceId, new BigDecimal("40.00"), "CARD");
+
+        assertThat(paid.getPatientName()).isEqualTo("Ada Lovelace");
+        assertThat(paid.getStatus()).isEqualTo("PARTIAL");
+        assertThat(paid.getPaidAmount()).isEqualByComparingTo("40.00");
+    }
+
+    private Long createInvoice(BigDecimal total) {
+        return billingService.insertInvoices(List.of(InvoiceDTO.builder()
+                .patientId(42L)
+                .items(List.of(InvoiceItemDTO.builder()
+                        .description("Consultation")
+                        .quantity(1)
+                        .unitPrice(total)
+                        .build()))
+                .build())).get(0);
+    }
+}
@@ -0,0 +1,178 @@
+package com.ihms.billing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.dto.InvoiceDTO;
+import com.ihms.common.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentIdempotencyServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("50.00");
+
+    private BillingService billingService;
+    private PlatformTransactionManager transactionManager;
+    private KeyTable keys;
+    private PaymentIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        billingService = mock(BillingService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(billingService.withPatientName(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        keys = new KeyTable();
+        service = newService();
+    }
+
+    @Test
+    void paysWithoutAKeyEveryTime() {
+        when(billingService.processPayment(1L, AMOUNT, "CARD")).thenReturn(invoice(1L, "PARTIALLY_PAID"));
+
+        service.processPayment(null, 1L, AMOUNT, "CARD");
+        service.processPayment(null, 1L, AMOUNT, "CARD");
+
+        verify(billingService, times(2)).processPayment(1L, AMOUNT, "CARD");
+        assertThat(keys.rows).isEmpty();
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        assertThatThrownBy(() -> service.processPayment(" ", 1L, AMOUNT, "CARD"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.processPayment("k".repeat(PaymentIdempotencyService.MAX_KEY_LENGTH + 1),
+                1L, AMOUNT, "CARD"))
+                .isInstanceOf(BadRequestException.class);
+        verify(billingService, never()).recordPayment(any(), any(), any());
+    }
+
+    @Test
+    void replaysTheStoredResponseWithoutPayingAgain() {
+        when(billingService.recordPayment(1L, AMOUNT, "CARD")).thenReturn(invoice(1L, "PAID"));
+
+        InvoiceDTO first = service.processPayment("key-1", 1L, AMOUNT, "CARD");
+        int readsAfterFirst = keys.reads.get();
+        InvoiceDTO replay = service.processPayment("key-1", 1L, new BigDecimal("50"), "card");
+
+        assertThat(replay).isEqualTo(first);
+        verify(billingService, times(1)).recordPayment(any(), any(), any());
+        // Served from the in-memory cache
+        assertThat(keys.reads.get()).isEqualTo(readsAfterFirst);
+    }
+
+    @Test
+    void replaysFromTheTableOnAnotherInstance() {
+        when(billingService.recordPayment(1L, AMOUNT, "CARD")).thenReturn(invoice(1L, "PAID"));
+        InvoiceDTO first = service.processPayment("key-1", 1L, AMOUNT, "CARD");
+
+        InvoiceDTO replay = newService().processPayment("key-1", 1L, AMOUNT, "CARD");
+
+        assertThat(replay).isEqualTo(first);
+        verify(billingService, times(1)).recordPayment(any(), any(), any());
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentPayment() {
+        when(billingService.recordPayment(1L, AMOUNT, "CARD")).thenReturn(invoice(1L, "PAID"));
+        service.processPayment("key-1", 1L, AMOUNT, "CARD");
+
+        assertThatThrownBy(() -> service.processPayment("key-1", 1L, new BigDecimal("60.00"), "CARD"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("different payment");
+        assertThatThrownBy(() -> newService().processPayment("key-1", 2L, AMOUNT, "CARD"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("different payment");
+        verify(billingService, times(1)).recordPayment(any(), any(), any());
+    }
+
+    @Test
+    void replayDuringTheFirstPaymentIsNotCachedAsInFlight() {
+        PaymentIdempotencyService otherInstance = newService();
+        when(billingService.recordPayment(1L, AMOUNT, "CARD")).thenAnswer(invocation -> {
+            // The key is claimed but has no response yet
+            assertThatThrownBy(() -> otherInstance.processPayment("key-1", 1L, AMOUNT, "CARD"))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessageContaining("still being processed");
+            return invoice(1L, "PAID");
+        });
+
+        InvoiceDTO first = service.processPayment("key-1", 1L, AMOUNT, "CARD");
+
+        assertThat(otherInstance.processPayment("key-1", 1L, AMOUNT, "CARD")).isEqualTo(first);
+        verify(billingService, times(1)).recordPayment(any(), any(), any());
+    }
+
+    private PaymentIdempotencyService newService() {
+        return new PaymentIdempotencyService(billingService, keys, new ObjectMapper().findAndRegisterModules(),
+                transactionManager, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), Duration.ofDays(1));
+    }
+
+    private static InvoiceDTO invoice(Long id, String status) {
+        return InvoiceDTO.builder()
+                .id(id)
+                .patientId(7L)
+                .totalAmount(new BigDecimal("100.00"))
+                .paidAmount(AMOUNT)
+                .status(status)
+                .build();
+    }
+
+    /** In-memory stand-in for payment_idempotency_keys, shared by every service instance in a test. */
+    private static class KeyTable extends JdbcTemplate {
+
+        private final Map<String, String[]> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO payment_idempotency_keys")) {
+                return rows.putIfAbsent((String) args[0], new String[]{(String) args[1], null}) == null ? 1 : 0;
+            }
+            if (sql.startsWith("UPDATE payment_idempotency_keys")) {
+                rows.get((String) args[1])[1] = (String) args[0];
+                return 1;
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            reads.incrementAndGet();
+            String[] row = rows.get((String) args[0]);
+            if (row == null) {
+                return List.of();
+            }
+            try {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("request_hash")).thenReturn(row[0]);
+                when(rs.getString("response")).thenReturn(row[1]);
+                return List.of(rowMapper.mapRow(rs, 0));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
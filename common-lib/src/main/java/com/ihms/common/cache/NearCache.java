@@ -0,0 +1,235 @@
+package com.ihms.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, in-process cache for remote lookups.
+ * <p>
+ * Entries are served while younger than {@code ttl}. Once expired they are reloaded; if the
+ * reload fails, the old value is still served as long as it is younger than {@code maxStaleness}.
+ * When the cache is full the least recently used entry is evicted. A load that was already
+ * running when an invalidation happened is returned to its caller but not cached, so it cannot
+ * reinstate a value read before the change.
+ */
+public class NearCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long maxStalenessNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long invalidations;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter evictions;
+    private final Counter loadFailures;
+
+    public NearCache(String name, int maxSize, Duration ttl, Duration maxStaleness, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStalenessNanos = Math.max(ttl.toNanos(), maxStaleness.toNanos());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > NearCache.this.maxSize) {
+                    NearCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = counter(meterRegistry, name, "hit");
+        this.misses = counter(meterRegistry, name, "miss");
+        this.staleHits = counter(meterRegistry, name, "stale");
+        this.loadFailures = counter(meterRegistry, name, "load-failure");
+        this.evictions = Counter.builder("ihms.cache.evictions")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("ihms.cache.size", this, NearCache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        Entry<V> entry = lookup(key);
+        if (entry != null && entry.ageNanos(now) < ttlNanos) {
+            hits.increment();
+            return entry.value();
+        }
+
+        misses.increment();
+        long generation = generation();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            if (entry != null && entry.ageNanos(now) < maxStalenessNanos) {
+                staleHits.increment();
+                return entry.value();
+            }
+            throw e;
+        }
+
+        if (value != null) {
+            putIfCurrent(Map.of(key, value), generation);
+        }
+        return value;
+    }
+
+    /**
+     * Resolves many keys at once. Fresh entries are served from the cache and all remaining keys
+     * are handed to {@code bulkLoader} in a single call. Keys the loader does not return are
+     * absent from the result.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        long now = System.nanoTime();
+        Map<K, V> result = new HashMap<>();
+        Map<K, Entry<V>> expired = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+
+        lock.lock();
+        try {
+            for (K key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.ageNanos(now) < ttlNanos) {
+                    result.put(key, entry.value());
+                } else {
+                    if (entry != null) {
+                        expired.put(key, entry);
+                    }
+                    missing.add(key);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        hits.increment(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        misses.increment(missing.size());
+        long generation = generation();
+
+        Map<K, V> loaded;
+        try {
+            loaded = bulkLoader.apply(missing);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            expired.forEach((key, entry) -> {
+                if (entry.ageNanos(now) < maxStalenessNanos) {
+                    staleHits.increment();
+                    result.put(key, entry.value());
+                }
+            });
+            return result;
+        }
+
+        putIfCurrent(loaded, generation);
+        result.putAll(loaded);
+        return result;
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, System.nanoTime()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long generation() {
+        lock.lock();
+        try {
+            return invalidations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putIfCurrent(Map<K, V> loaded, long generation) {
+        lock.lock();
+        try {
+            if (invalidations != generation) {
+                return;
+            }
+            long loadedAt = System.nanoTime();
+            loaded.forEach((key, value) -> {
+                if (value != null) {
+                    entries.put(key, new Entry<>(value, loadedAt));
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry<V> lookup(K key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("ihms.cache.requests")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry<V>(V value, long loadedAtNanos) {
+        long ageNanos(long now) {
+            return now - loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ihms.common.cache;
+
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops a patient from this service's {@link PatientSummaryCache} when patient-service reports
+ * that the patient changed or was deleted. Events arrive through the outbox broker, so entries
+ * are refreshed within the relay interval rather than after the cache TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientCacheInvalidator {
+
+    private final PatientSummaryCache patientSummaryCache;
+
+    @EventListener
+    public void onEvent(OutboxEvent event) {
+        if (EventTypes.PATIENT.equals(event.getAggregateType())
+                && (EventTypes.PATIENT_UPDATED.equals(event.getEventType())
+                || EventTypes.PATIENT_DELETED.equals(event.getEventType()))) {
+            patientSummaryCache.invalidate(Long.valueOf(event.getAggregateId()));
+        }
+    }
+}
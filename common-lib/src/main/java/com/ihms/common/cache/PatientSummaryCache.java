@@ -0,0 +1,59 @@
+package com.ihms.common.cache;
+
+import com.ihms.common.concurrent.SingleFlight;
+import com.ihms.common.dto.PatientDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared near-cache for patient lookups. Services wrap their {@code PatientClient} calls with it;
+ * patient-service invalidates entries when a patient is updated or deleted. Concurrent misses for
+ * the same patient share a single load, whether they come from single or bulk lookups.
+ */
+@Component
+public class PatientSummaryCache {
+
+    private final NearCache<Long, PatientDTO> cache;
+    private final SingleFlight<Long, PatientDTO> loads;
+
+    public PatientSummaryCache(MeterRegistry meterRegistry,
+                               @Value("${ihms.cache.patient.max-size:10000}") int maxSize,
+                               @Value("${ihms.cache.patient.ttl:PT5M}") Duration ttl,
+                               @Value("${ihms.cache.patient.max-staleness:PT30M}") Duration maxStaleness) {
+        this.cache = new NearCache<>("patient-summary", maxSize, ttl, maxStaleness, meterRegistry);
+        this.loads = new SingleFlight<>("patient-summary", meterRegistry);
+    }
+
+    public PatientDTO getPatient(Long patientId, Function<Long, PatientDTO> loader) {
+        return cache.get(patientId, id -> loads.execute(id, loader));
+    }
+
+    public Map<Long, PatientDTO> getPatients(Collection<Long> patientIds,
+                                             Function<Set<Long>, List<PatientDTO>> bulkLoader) {
+        return cache.getAll(patientIds, missing -> loads.executeAll(missing, toLoad -> {
+            List<PatientDTO> patients = bulkLoader.apply(toLoad);
+            if (patients == null) {
+                return Map.of();
+            }
+            return patients.stream()
+                    .collect(Collectors.toMap(PatientDTO::getId, Function.identity(), (a, b) -> a));
+        }));
+    }
+
+    public void invalidate(Long patientId) {
+        cache.invalidate(patientId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
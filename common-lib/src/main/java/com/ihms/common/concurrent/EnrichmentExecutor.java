@@ -0,0 +1,95 @@
+package com.ihms.common.concurrent;
+
+import com.ihms.common.web.ForwardedAuthorization;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Fans out per-key remote lookups for DTO enrichment on virtual threads, so a page of N rows
+ * costs roughly one round trip instead of N. Every key is submitted at once; a per-instance
+ * semaphore caps how many lookups run concurrently, and one deadline bounds the whole fan-out.
+ * The caller's Authorization header value is forwarded so Feign calls stay authenticated. Keys
+ * whose lookup fails, misses the deadline or returns null are absent from the result; callers
+ * apply their usual fallback.
+ */
+@Component
+public class EnrichmentExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public EnrichmentExecutor(@Value("${ihms.enrichment.max-concurrency:32}") int maxConcurrency,
+                              @Value("${ihms.enrichment.timeout:PT2S}") Duration timeout) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public <K, V> Map<K, V> fetchAll(Collection<K> keys, Function<K, V> lookup) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        String authorization = ForwardedAuthorization.current();
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            futures.put(key, CompletableFuture.supplyAsync(() -> call(key, lookup, authorization, deadline), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Collect whatever completed in time
+        }
+
+        Map<K, V> results = new HashMap<>();
+        futures.forEach((key, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                V value = future.join();
+                if (value != null) {
+                    results.put(key, value);
+                }
+            }
+        });
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Lookups queue for a permit on their own virtual thread; those still waiting at the
+    // deadline give up rather than start a call nobody will read
+    private <K, V> V call(K key, Function<K, V> lookup, String authorization, long deadline) {
+        try {
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            return ForwardedAuthorization.callWith(authorization, () -> lookup.apply(key));
+        } finally {
+            permits.release();
+        }
+    }
+}
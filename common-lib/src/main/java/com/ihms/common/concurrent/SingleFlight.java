@@ -0,0 +1,134 @@
+package com.ihms.common.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent calls for the same key into one execution. The first caller runs the
+ * loader; callers arriving while it is in flight wait for and share its result or exception.
+ * Nothing is remembered once the call completes, so this complements rather than replaces a
+ * cache. Collapsed calls are counted in {@code ihms.singleflight.calls{result=collapsed}}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = counter(meterRegistry, name, "executed");
+        this.collapsed = counter(meterRegistry, name, "collapsed");
+    }
+
+    public V execute(K key, Function<K, V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Bulk form of {@link #execute}. Keys already in flight, from either form, are awaited; the
+     * rest are loaded in one {@code bulkLoader} call that later callers join per key. Keys the
+     * loader does not return, or whose shared load failed, are absent from the result.
+     */
+    public Map<K, V> executeAll(Collection<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (owned.containsKey(key) || joined.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                joined.put(key, existing);
+            } else {
+                owned.put(key, call);
+            }
+        }
+        collapsed.increment(joined.size());
+
+        // Own keys are loaded before joined ones are awaited, so overlapping bulk calls cannot deadlock
+        Map<K, V> result = new HashMap<>();
+        if (!owned.isEmpty()) {
+            executed.increment(owned.size());
+            try {
+                Map<K, V> loaded = bulkLoader.apply(Set.copyOf(owned.keySet()));
+                owned.forEach((key, call) -> {
+                    V value = loaded.get(key);
+                    call.complete(value);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                owned.values().forEach(call -> call.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        joined.forEach((key, call) -> {
+            try {
+                V value = await(call);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            } catch (RuntimeException e) {
+                // The load this key joined failed; it is left out like any key the loader missed
+            }
+        });
+        return result;
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("ihms.singleflight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
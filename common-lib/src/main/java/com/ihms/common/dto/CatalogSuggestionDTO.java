@@ -0,0 +1,22 @@
+package com.ihms.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSuggestionDTO {
+    private String type;
+    private Long id;
+    private String name;
+    private String sku;
+    private String barcode;
+    private String detail;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,21 @@
+package com.ihms.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAlertDTO {
+    private String itemType;
+    private Long itemId;
+    private String name;
+    private String sku;
+    private String alertType;
+    private Integer stockQuantity;
+    private Integer reorderLevel;
+    private String expiryDate;
+}
@@ -0,0 +1,34 @@
+package com.ihms.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat invoice row for list views, built directly by a JPQL constructor expression so the
+ * items collection is never loaded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSummaryDTO {
+    private Long id;
+    private String invoiceNumber;
+    private Long patientId;
+    private String patientName;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private String status;
+    private LocalDateTime createdAt;
+    private Integer itemCount;
+
+    public InvoiceSummaryDTO(Long id, String invoiceNumber, Long patientId, BigDecimal totalAmount,
+                             BigDecimal paidAmount, String status, LocalDateTime createdAt, Integer itemCount) {
+        this(id, invoiceNumber, patientId, null, totalAmount, paidAmount, status, createdAt, itemCount);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,5 +20,6 @@ public class PrescriptionItemDTO {
     private String frequency;
     private Integer durationDays;
     private String instructions;
+    private BigDecimal unitPrice;
 }
 
@@ -0,0 +1,33 @@
+package com.ihms.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat prescription row for list views, built directly by a JPQL constructor expression so
+ * neither the items nor their drugs are loaded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionSummaryDTO {
+    private Long id;
+    private String prescriptionNumber;
+    private Long patientId;
+    private String patientName;
+    private Long doctorId;
+    private String doctorName;
+    private String status;
+    private LocalDateTime prescribedAt;
+    private Integer itemCount;
+
+    public PrescriptionSummaryDTO(Long id, String prescriptionNumber, Long patientId, Long doctorId,
+                                  String doctorName, String status, LocalDateTime prescribedAt, Integer itemCount) {
+        this(id, prescriptionNumber, patientId, null, doctorId, doctorName, status, prescribedAt, itemCount);
+    }
+}
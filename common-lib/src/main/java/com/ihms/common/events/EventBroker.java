@@ -0,0 +1,13 @@
+package com.ihms.common.events;
+
+import java.util.List;
+
+/**
+ * Destination for events drained from the outbox. {@link #publish} is called with events in
+ * outbox order and must throw if any of them could not be handed over; the relay then retries
+ * the whole batch, so delivery is at-least-once and consumers should be idempotent.
+ */
+public interface EventBroker {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,68 @@
+package com.ihms.common.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signature over an event batch body, shared by the forwarding broker and the
+ * services that receive forwarded events. Keyed with {@code ihms.events.signing-secret}, which
+ * must differ from the gateway's identity-assertion secret so neither key can forge the other's
+ * messages.
+ */
+@Component
+public class EventSigner {
+
+    public static final String SIGNATURE_HEADER = "X-Event-Signature";
+
+    private final ThreadLocal<Mac> mac;
+
+    public EventSigner(@Value("${ihms.events.signing-secret:}") String secret,
+                       @Value("${ihms.security.trusted-gateway.secret:}") String identityAssertionSecret) {
+        if (!secret.isBlank() && secret.equals(identityAssertionSecret)) {
+            throw new IllegalStateException(
+                    "ihms.events.signing-secret must not reuse the trusted-gateway identity-assertion secret");
+        }
+        this.mac = secret.isBlank() ? null : ThreadLocal.withInitial(() -> newMac(secret));
+    }
+
+    public boolean isConfigured() {
+        return mac != null;
+    }
+
+    public String sign(byte[] body) {
+        if (mac == null) {
+            throw new IllegalStateException("ihms.events.signing-secret is not set");
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.get().doFinal(body));
+    }
+
+    public boolean verify(byte[] body, String signature) {
+        if (mac == null || signature == null) {
+            return false;
+        }
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(mac.get().doFinal(body), actual);
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ihms.common.events;
+
+public final class EventTypes {
+
+    public static final String APPOINTMENT = "APPOINTMENT";
+    public static final String PRESCRIPTION = "PRESCRIPTION";
+    public static final String INVOICE = "INVOICE";
+    public static final String PATIENT = "PATIENT";
+
+    public static final String APPOINTMENT_STATUS_CHANGED = "APPOINTMENT_STATUS_CHANGED";
+    public static final String PRESCRIPTION_DISPENSED = "PRESCRIPTION_DISPENSED";
+    public static final String PAYMENT_PROCESSED = "PAYMENT_PROCESSED";
+    public static final String PATIENT_UPDATED = "PATIENT_UPDATED";
+    public static final String PATIENT_DELETED = "PATIENT_DELETED";
+
+    private EventTypes() {
+    }
+}
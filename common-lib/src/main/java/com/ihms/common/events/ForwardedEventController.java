@@ -0,0 +1,55 @@
+package com.ihms.common.events;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.dto.ApiResponse;
+import com.ihms.common.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives signed event batches from other services' {@link HttpForwardingEventBroker} and hands
+ * each event to the local {@code @EventListener(OutboxEvent.class)} methods, exactly as the
+ * in-process broker would. Enabled with {@code ihms.events.receiver.enabled}.
+ */
+@RestController
+@RequestMapping("/events")
+@ConditionalOnProperty(name = "ihms.events.receiver.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ForwardedEventController {
+
+    static final TypeReference<List<OutboxEvent>> EVENT_BATCH = new TypeReference<>() {
+    };
+
+    private final EventSigner eventSigner;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<Integer>> receive(
+            @RequestHeader(value = EventSigner.SIGNATURE_HEADER, required = false) String signature,
+            @RequestBody byte[] body) {
+        if (!eventSigner.verify(body, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Invalid event signature"));
+        }
+        List<OutboxEvent> events;
+        try {
+            events = objectMapper.readValue(body, EVENT_BATCH);
+        } catch (IOException e) {
+            throw new BadRequestException("Malformed event batch");
+        }
+        events.forEach(eventPublisher::publishEvent);
+        return ResponseEntity.ok(ApiResponse.success("Events accepted", events.size()));
+    }
+}
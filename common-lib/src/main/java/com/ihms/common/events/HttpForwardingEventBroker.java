@@ -0,0 +1,198 @@
+package com.ihms.common.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Forwards each outbox batch as one signed JSON POST to every subscriber URL (for example
+ * {@code http://billing-service/events}), resolved through the service registry. Delivery is
+ * tracked per subscriber: a batch one subscriber rejects, and every later batch for it, is
+ * parked in {@code outbox_deliveries} and retried in order with backoff, so an unreachable
+ * subscriber neither holds up the others nor makes them receive a batch twice. After
+ * {@code max-attempts} failed retries the parked events are dead-lettered for that subscriber
+ * and delivery moves on.
+ */
+@Component
+@ConditionalOnProperty(name = "ihms.outbox.broker", havingValue = "http")
+public class HttpForwardingEventBroker implements EventBroker {
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final EventSigner eventSigner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<String> subscribers;
+    private final String source;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryInterval;
+
+    public HttpForwardingEventBroker(ObjectProvider<LoadBalancerInterceptor> loadBalancer,
+                                     ObjectMapper objectMapper,
+                                     EventSigner eventSigner,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${ihms.outbox.http.subscribers:}") List<String> subscribers,
+                                     @Value("${ihms.outbox.http.timeout:PT5S}") Duration timeout,
+                                     @Value("${spring.application.name}") String source,
+                                     @Value("${ihms.outbox.batch-size:200}") int batchSize,
+                                     @Value("${ihms.outbox.http.max-attempts:10}") int maxAttempts,
+                                     @Value("${ihms.outbox.http.retry-interval:PT5S}") Duration retryInterval) {
+        if (!eventSigner.isConfigured()) {
+            throw new IllegalStateException("ihms.events.signing-secret must be set when the http event broker is used");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        RestClient.Builder builder = RestClient.builder().requestFactory(requestFactory);
+        loadBalancer.ifAvailable(builder::requestInterceptor);
+        this.restClient = builder.build();
+        this.objectMapper = objectMapper;
+        this.eventSigner = eventSigner;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.subscribers = subscribers;
+        this.source = source;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryInterval = retryInterval;
+    }
+
+    // Runs in the relay's transaction, so parked rows commit together with published_at
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        byte[] body = serialize(events);
+        for (String subscriber : subscribers) {
+            if (hasParked(subscriber)) {
+                // Behind a backlog; sending now would deliver out of order
+                park(subscriber, events, 0, null);
+                continue;
+            }
+            try {
+                post(subscriber, body);
+            } catch (RestClientException e) {
+                park(subscriber, events, 1, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ihms.outbox.http.retry-interval:PT5S}")
+    public void retryParked() {
+        for (String subscriber : subscribers) {
+            Integer delivered;
+            do {
+                delivered = transactionTemplate.execute(status -> retryBatch(subscriber));
+            } while (delivered != null && delivered == batchSize);
+        }
+    }
+
+    private int retryBatch(String subscriber) {
+        // One instance per subscriber at a time, so parked events are retried in order
+        Boolean claimed = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))",
+                Boolean.class, "outbox_deliveries:" + subscriber);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return 0;
+        }
+        List<Parked> parked = jdbcTemplate.query(
+                "SELECT event_id, attempts, next_attempt_at FROM outbox_deliveries " +
+                        "WHERE subscriber = ? AND dead_at IS NULL ORDER BY event_id LIMIT ?",
+                (rs, rowNum) -> new Parked(rs.getLong("event_id"), rs.getInt("attempts"),
+                        rs.getTimestamp("next_attempt_at").toLocalDateTime()),
+                subscriber, batchSize);
+        if (parked.isEmpty() || parked.get(0).nextAttemptAt().isAfter(LocalDateTime.now())) {
+            return 0;
+        }
+        Long[] ids = parked.stream().map(Parked::eventId).toArray(Long[]::new);
+        List<OutboxEvent> events = jdbcTemplate.query(
+                "SELECT " + OutboxRelay.COLUMNS + " FROM outbox_events WHERE id = ANY(?) ORDER BY id",
+                OutboxRelay.rowMapper(source), (Object) ids);
+
+        try {
+            if (!events.isEmpty()) {
+                post(subscriber, serialize(events));
+            }
+        } catch (RestClientException e) {
+            int attempts = parked.get(0).attempts() + 1;
+            if (attempts >= maxAttempts) {
+                jdbcTemplate.update("UPDATE outbox_deliveries SET attempts = ?, last_error = ?, " +
+                        "dead_at = CURRENT_TIMESTAMP WHERE subscriber = ? AND event_id = ANY(?)",
+                        attempts, error(e), subscriber, ids);
+                return parked.size();
+            }
+            jdbcTemplate.update("UPDATE outbox_deliveries SET attempts = ?, next_attempt_at = ?, last_error = ? " +
+                    "WHERE subscriber = ? AND event_id = ANY(?)",
+                    attempts, nextAttempt(attempts), error(e), subscriber, ids);
+            return 0;
+        }
+        jdbcTemplate.update("DELETE FROM outbox_deliveries WHERE subscriber = ? AND event_id = ANY(?)",
+                subscriber, ids);
+        return parked.size();
+    }
+
+    private boolean hasParked(String subscriber) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM outbox_deliveries WHERE subscriber = ? AND dead_at IS NULL)",
+                Boolean.class, subscriber));
+    }
+
+    private void park(String subscriber, List<OutboxEvent> events, int attempts, RestClientException cause) {
+        Timestamp nextAttempt = attempts == 0 ? Timestamp.valueOf(LocalDateTime.now()) : nextAttempt(attempts);
+        String error = cause != null ? error(cause) : null;
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_deliveries (subscriber, event_id, attempts, next_attempt_at, " +
+                        "last_error) VALUES (?, ?, ?, ?, ?) ON CONFLICT (subscriber, event_id) DO NOTHING",
+                events.stream()
+                        .map(event -> new Object[]{subscriber, event.getId(), attempts, nextAttempt, error})
+                        .toList());
+    }
+
+    private void post(String subscriber, byte[] body) {
+        restClient.post()
+                .uri(subscriber)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(EventSigner.SIGNATURE_HEADER, eventSigner.sign(body))
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private byte[] serialize(List<OutboxEvent> events) {
+        try {
+            return objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event batch", e);
+        }
+    }
+
+    private Timestamp nextAttempt(int attempts) {
+        Duration backoff = retryInterval.multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_DOUBLINGS));
+        return Timestamp.valueOf(LocalDateTime.now().plus(backoff));
+    }
+
+    private static String error(RestClientException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private record Parked(long eventId, int attempts, LocalDateTime nextAttemptAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.ihms.common.events;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default broker: delivers events to {@code @EventListener(OutboxEvent.class)} methods in the
+ * same application. Suitable for local development and for projections owned by the
+ * publishing service.
+ */
+@Component
+@ConditionalOnProperty(name = "ihms.outbox.broker", havingValue = "in-process", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InProcessEventBroker implements EventBroker {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
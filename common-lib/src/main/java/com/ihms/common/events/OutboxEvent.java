@@ -0,0 +1,26 @@
+package com.ihms.common.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A state change recorded in a service's {@code outbox_events} table. {@code payload} is the
+ * JSON of the DTO the change produced; {@code id} is unique per source service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    private Long id;
+    private String source;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,91 @@
+package com.ihms.common.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains unpublished outbox rows to the {@link EventBroker} in batches. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so several instances can relay concurrently without handing
+ * out the same row twice; a batch is marked published only if the broker accepted it.
+ */
+@Component
+@ConditionalOnProperty(name = "ihms.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    static final String COLUMNS = "id, aggregate_type, aggregate_id, event_type, payload, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventBroker eventBroker;
+    private final String source;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       EventBroker eventBroker,
+                       @Value("${spring.application.name}") String source,
+                       @Value("${ihms.outbox.batch-size:200}") int batchSize,
+                       @Value("${ihms.outbox.retention:P7D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventBroker = eventBroker;
+        this.source = source;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${ihms.outbox.relay-interval:PT1S}")
+    public void relay() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+    }
+
+    // Events a subscriber still owes are kept until they are delivered or dead-lettered
+    @Scheduled(fixedDelayString = "${ihms.outbox.cleanup-interval:PT1H}")
+    public void purgePublished() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        jdbcTemplate.update("DELETE FROM outbox_deliveries WHERE dead_at < ?", cutoff);
+        jdbcTemplate.update("DELETE FROM outbox_events e WHERE e.published_at < ? AND NOT EXISTS " +
+                "(SELECT 1 FROM outbox_deliveries d WHERE d.event_id = e.id)", cutoff);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM outbox_events " +
+                        "WHERE published_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                rowMapper(source), batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        eventBroker.publish(events);
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = CURRENT_TIMESTAMP WHERE id = ANY(?)",
+                (Object) events.stream().map(OutboxEvent::getId).toArray(Long[]::new));
+        return events.size();
+    }
+
+    static RowMapper<OutboxEvent> rowMapper(String source) {
+        return (rs, rowNum) -> OutboxEvent.builder()
+                .id(rs.getLong("id"))
+                .source(source)
+                .aggregateType(rs.getString("aggregate_type"))
+                .aggregateId(rs.getString("aggregate_id"))
+                .eventType(rs.getString("event_type"))
+                .payload(rs.getString("payload"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ihms.common.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies the identity assertion the gateway attaches after it has validated the bearer token.
+ * The gateway signs {@code X-User-Id}, {@code X-User-Role} and {@code X-Auth-Expires} with a shared
+ * internal HMAC key, so downstream services can trust those headers without re-parsing the JWT.
+ * Only active when {@code ihms.security.trusted-gateway.enabled} is set.
+ */
+@Component
+public class GatewayIdentityVerifier {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String EXPIRES_HEADER = "X-Auth-Expires";
+    public static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    private final boolean enabled;
+    private final ThreadLocal<Mac> mac;
+
+    public GatewayIdentityVerifier(@Value("${ihms.security.trusted-gateway.enabled:false}") boolean enabled,
+                                   @Value("${ihms.security.trusted-gateway.secret:}") String secret) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("ihms.security.trusted-gateway.secret must be set when trusted gateway mode is enabled");
+        }
+        this.enabled = enabled;
+        this.mac = enabled ? ThreadLocal.withInitial(() -> newMac(secret)) : null;
+    }
+
+    public Optional<JwtPrincipal> verify(HttpServletRequest request) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        String userId = request.getHeader(USER_ID_HEADER);
+        String role = request.getHeader(USER_ROLE_HEADER);
+        String expires = request.getHeader(EXPIRES_HEADER);
+        if (signature == null || userId == null || role == null || expires == null) {
+            return Optional.empty();
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() >= expiresAt) {
+            return Optional.empty();
+        }
+
+        byte[] expected = mac.get().doFinal(payload(userId, role, expires));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+        return Optional.of(new JwtPrincipal(userId, role, expiresAt));
+    }
+
+    private static byte[] payload(String userId, String role, String expires) {
+        return (userId + "\n" + role + "\n" + expires).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ihms.common.security;
+
+/**
+ * Identity carried by a verified token.
+ */
+public record JwtPrincipal(String subject, String role, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ihms.common.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of already-verified tokens, keyed by the SHA-256 of the token so raw tokens are
+ * never retained. Entries expire with the token itself; when the cache is full the least
+ * recently used entry is evicted.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<TokenHash, JwtPrincipal> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        // Access order, so a burst of new tokens evicts the least recently used ones one at a time
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenHash, JwtPrincipal> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    JwtPrincipal get(String token) {
+        TokenHash key = hash(token);
+        lock.lock();
+        try {
+            JwtPrincipal principal = entries.get(key);
+            if (principal == null) {
+                return null;
+            }
+            if (principal.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                return null;
+            }
+            return principal;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(String token, JwtPrincipal principal) {
+        TokenHash key = hash(token);
+        lock.lock();
+        try {
+            entries.put(key, principal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static TokenHash hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        ByteBuffer bytes = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenHash(bytes.getLong(), bytes.getLong(), bytes.getLong(), bytes.getLong());
+    }
+
+    private record TokenHash(long a, long b, long c, long d) {
+    }
+}
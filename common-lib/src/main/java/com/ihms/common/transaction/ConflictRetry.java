@@ -0,0 +1,47 @@
+package com.ihms.common.transaction;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when it loses a concurrent update
+ * (stale version, deadlock or lock timeout). Only the outermost caller can retry: inside an
+ * existing transaction the work runs once and the conflict propagates.
+ */
+public final class ConflictRetry {
+
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    private ConflictRetry() {
+    }
+
+    public static <T> T execute(TransactionTemplate transactionTemplate, int maxAttempts, TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(action);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    // Jittered so writers that collided once do not collide again in lockstep
+    private static void backoff(int attempt, ConcurrencyFailureException cause) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MILLIS, 2 * BASE_BACKOFF_MILLIS) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
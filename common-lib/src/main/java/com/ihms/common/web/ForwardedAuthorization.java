@@ -0,0 +1,46 @@
+package com.ihms.common.web;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * The Authorization header that outgoing service calls forward. On a servlet thread it is read
+ * from the current request; work handed to another thread carries the captured value instead
+ * of the request object, which is recycled once the response is written.
+ */
+public final class ForwardedAuthorization {
+
+    public static final String HEADER = "Authorization";
+
+    private static final ThreadLocal<String> PROPAGATED = new ThreadLocal<>();
+
+    private ForwardedAuthorization() {
+    }
+
+    public static String current() {
+        String propagated = PROPAGATED.get();
+        if (propagated != null) {
+            return propagated;
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(HEADER);
+        }
+        return null;
+    }
+
+    public static <T> T callWith(String authorization, Supplier<T> action) {
+        String previous = PROPAGATED.get();
+        PROPAGATED.set(authorization);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                PROPAGATED.set(previous);
+            } else {
+                PROPAGATED.remove();
+            }
+        }
+    }
+}
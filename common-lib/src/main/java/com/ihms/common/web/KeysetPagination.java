@@ -0,0 +1,30 @@
+package com.ihms.common.web;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Helpers for {@code after=<id>&limit=} cursor pagination. Repositories page with
+ * {@code findByIdGreaterThanOrderByIdAsc(after, limit)} so each page is a single index range scan.
+ */
+public final class KeysetPagination {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private KeysetPagination() {
+    }
+
+    public static boolean isRequested(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    public static long after(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    public static Pageable limit(Integer limit) {
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : DEFAULT_LIMIT;
+        return PageRequest.of(0, size);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ihms.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows as newline-delimited JSON. Rows are converted and flushed in chunks so that only
+ * one chunk of entities and DTOs is held in memory at a time.
+ */
+public class NdjsonWriter {
+
+    private static final byte NEWLINE = '\n';
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(Object row) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(row));
+        out.write(NEWLINE);
+    }
+
+    /**
+     * Drains {@code rows} in chunks of {@code chunkSize}. Each chunk is converted with
+     * {@code converter}, written and flushed, then {@code afterChunk} runs (typically
+     * {@code EntityManager::clear} so the persistence context does not grow).
+     */
+    public <E> void writeAll(Stream<E> rows, int chunkSize,
+                             Function<List<E>, ? extends Collection<?>> converter,
+                             Runnable afterChunk) throws IOException {
+        Iterator<E> iterator = rows.iterator();
+        List<E> chunk = new ArrayList<>(chunkSize);
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                for (Object row : converter.apply(chunk)) {
+                    write(row);
+                }
+                out.flush();
+                chunk.clear();
+                afterChunk.run();
+            }
+        }
+    }
+
+    /**
+     * Writes keyset pages of {@code pageSize} rows, starting after id 0, until a page comes back
+     * short. {@code page} should read in its own short transaction; {@code converter} and the
+     * writes run outside it, so remote enrichment and slow clients hold no connection open.
+     */
+    public <E> void writePages(int pageSize, LongFunction<List<E>> page, ToLongFunction<E> key,
+                               Function<List<E>, ? extends Collection<?>> converter,
+                               Runnable afterPage) throws IOException {
+        long after = 0L;
+        List<E> rows;
+        do {
+            rows = page.apply(after);
+            if (rows.isEmpty()) {
+                return;
+            }
+            for (Object row : converter.apply(rows)) {
+                write(row);
+            }
+            out.flush();
+            after = key.applyAsLong(rows.get(rows.size() - 1));
+            afterPage.run();
+        } while (rows.size() >= pageSize);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ihms.common.web;
+
+/**
+ * Clamps the {@code limit} of search endpoints, which return the best N matches rather than pages.
+ */
+public final class SearchLimit {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private SearchLimit() {
+    }
+
+    public static int clamp(Integer requested) {
+        return clamp(requested, DEFAULT_LIMIT, MAX_LIMIT);
+    }
+
+    public static int clamp(Integer requested, int defaultLimit, int maxLimit) {
+        return requested != null ? Math.max(1, Math.min(requested, maxLimit)) : defaultLimit;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ihms.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NearCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void servesFreshEntriesWithoutReloading() {
+        NearCache<Long, String> cache = cache(10, Duration.ofMinutes(5), Duration.ofMinutes(30));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, key -> "patient-" + loads.incrementAndGet())).isEqualTo("patient-1");
+        assertThat(cache.get(1L, key -> "patient-" + loads.incrementAndGet())).isEqualTo("patient-1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsExpiredEntries() {
+        NearCache<Long, String> cache = cache(10, Duration.ZERO, Duration.ofMinutes(30));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> "patient-" + loads.incrementAndGet());
+
+        assertThat(cache.get(1L, key -> "patient-" + loads.incrementAndGet())).isEqualTo("patient-2");
+    }
+
+    @Test
+    void servesStaleEntryWhenReloadFails() {
+        NearCache<Long, String> cache = cache(10, Duration.ZERO, Duration.ofMinutes(30));
+        cache.get(1L, key -> "patient-1");
+
+        String value = cache.get(1L, key -> {
+            throw new IllegalStateException("patient-service unavailable");
+        });
+
+        assertThat(value).isEqualTo("patient-1");
+        assertThat(requests("stale")).isEqualTo(1);
+        assertThat(requests("load-failure")).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesFailureWhenNothingUsableIsCached() {
+        NearCache<Long, String> cache = cache(10, Duration.ZERO, Duration.ZERO);
+        cache.get(1L, key -> "patient-1");
+
+        assertThatThrownBy(() -> cache.get(1L, key -> {
+            throw new IllegalStateException("patient-service unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        NearCache<Long, String> cache = cache(2, Duration.ofMinutes(5), Duration.ofMinutes(30));
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L, key -> "reloaded");
+        cache.put(3L, "three");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(1L, key -> "reloaded")).isEqualTo("one");
+        assertThat(cache.get(2L, key -> "reloaded")).isEqualTo("reloaded");
+        assertThat(meterRegistry.get("ihms.cache.evictions").counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void bulkLoadsOnlyMissingKeys() {
+        NearCache<Long, String> cache = cache(10, Duration.ofMinutes(5), Duration.ofMinutes(30));
+        cache.put(1L, "one");
+        List<Set<Long>> requested = new ArrayList<>();
+
+        Map<Long, String> result = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            requested.add(Set.copyOf(missing));
+            Map<Long, String> loaded = new HashMap<>();
+            loaded.put(2L, "two");
+            return loaded;
+        });
+
+        assertThat(requested).containsExactly(Set.of(2L, 3L));
+        assertThat(result).containsOnly(Map.entry(1L, "one"), Map.entry(2L, "two"));
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedAnInvalidation() {
+        NearCache<Long, String> cache = cache(10, Duration.ofMinutes(5), Duration.ofMinutes(30));
+
+        String value = cache.get(1L, key -> {
+            // The patient is updated and invalidated while the old row is being read
+            cache.invalidate(key);
+            return "old";
+        });
+
+        assertThat(value).isEqualTo("old");
+        assertThat(cache.get(1L, key -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    void invalidatedEntryIsReloaded() {
+        NearCache<Long, String> cache = cache(10, Duration.ofMinutes(5), Duration.ofMinutes(30));
+        cache.put(1L, "old");
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L, key -> "new")).isEqualTo("new");
+    }
+
+    private NearCache<Long, String> cache(int maxSize, Duration ttl, Duration maxStaleness) {
+        return new NearCache<>("test", maxSize, ttl, maxStaleness, meterRegistry);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("ihms.cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ihms.common.cache;
+
+import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientCacheInvalidatorTest {
+
+    private PatientSummaryCache cache;
+    private PatientCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PatientSummaryCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), Duration.ofMinutes(30));
+        invalidator = new PatientCacheInvalidator(cache);
+        cache.getPatient(1L, id -> patient(id, "Old"));
+    }
+
+    @Test
+    void patientUpdateEvictsTheCachedPatient() {
+        invalidator.onEvent(event(EventTypes.PATIENT, "1", EventTypes.PATIENT_UPDATED));
+
+        assertThat(cache.getPatient(1L, id -> patient(id, "New")).getFirstName()).isEqualTo("New");
+    }
+
+    @Test
+    void patientDeletionEvictsTheCachedPatient() {
+        invalidator.onEvent(event(EventTypes.PATIENT, "1", EventTypes.PATIENT_DELETED));
+
+        assertThat(cache.getPatient(1L, id -> patient(id, "New")).getFirstName()).isEqualTo("New");
+    }
+
+    @Test
+    void ignoresOtherEvents() {
+        invalidator.onEvent(event(EventTypes.APPOINTMENT, "1", EventTypes.APPOINTMENT_STATUS_CHANGED));
+
+        assertThat(cache.getPatient(1L, id -> patient(id, "New")).getFirstName()).isEqualTo("Old");
+    }
+
+    private static OutboxEvent event(String aggregateType, String aggregateId, String eventType) {
+        return OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload("{}")
+                .build();
+    }
+
+    private static PatientDTO patient(Long id, String firstName) {
+        return PatientDTO.builder().id(id).firstName(firstName).lastName("Patient").build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.ihms.common.concurrent;
+
+import com.ihms.common.web.ForwardedAuthorization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnrichmentExecutorTest {
+
+    private EnrichmentExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void looksUpEachDistinctKeyOnce() {
+        executor = new EnrichmentExecutor(8, Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<Long, String> result = executor.fetchAll(List.of(1L, 2L, 2L, 3L), key -> {
+            calls.incrementAndGet();
+            return "patient-" + key;
+        });
+
+        assertThat(result).containsOnly(Map.entry(1L, "patient-1"), Map.entry(2L, "patient-2"),
+                Map.entry(3L, "patient-3"));
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void capsConcurrencyWithoutDroppingKeys() {
+        executor = new EnrichmentExecutor(2, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> keys = IntStream.range(0, 20).boxed().toList();
+
+        Map<Integer, Integer> result = executor.fetchAll(keys, key -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(10);
+            running.decrementAndGet();
+            return key;
+        });
+
+        assertThat(result).hasSize(20);
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void oneDeadlineBoundsTheWholeFanOut() {
+        executor = new EnrichmentExecutor(1, Duration.ofMillis(300));
+        List<Integer> keys = IntStream.range(0, 10).boxed().toList();
+
+        long start = System.nanoTime();
+        Map<Integer, Integer> result = executor.fetchAll(keys, key -> {
+            sleep(200);
+            return key;
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Ten serialized 200 ms calls would take two seconds; the caller waits for the deadline only
+        assertThat(elapsedMillis).isLessThan(1_000);
+        assertThat(result.size()).isBetween(1, 2);
+    }
+
+    @Test
+    void leavesOutFailedAndMissingKeys() {
+        executor = new EnrichmentExecutor(4, Duration.ofSeconds(5));
+
+        Map<Long, String> result = executor.fetchAll(List.of(1L, 2L, 3L), key -> {
+            if (key == 2L) {
+                throw new IllegalStateException("patient-service unavailable");
+            }
+            return key == 3L ? null : "patient-" + key;
+        });
+
+        assertThat(result).containsOnly(Map.entry(1L, "patient-1"));
+    }
+
+    @Test
+    void forwardsTheCallersAuthorizationValue() {
+        executor = new EnrichmentExecutor(4, Duration.ofSeconds(5));
+
+        Map<Long, String> result = ForwardedAuthorization.callWith("Bearer caller",
+                () -> executor.fetchAll(List.of(1L, 2L), key -> ForwardedAuthorization.current()));
+
+        assertThat(result).containsOnly(Map.entry(1L, "Bearer caller"), Map.entry(2L, "Bearer caller"));
+        assertThat(ForwardedAuthorization.current()).isNull();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.ihms.common.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private MeterRegistry meterRegistry;
+    private SingleFlight<Long, String> loads;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new SingleFlight<>("test", meterRegistry);
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Test
+    void concurrentCallsForOneKeyShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(async(() -> loads.execute(1L, key -> {
+                calls.incrementAndGet();
+                await(release);
+                return "patient-1";
+            })));
+        }
+        waitUntil(() -> collapsed() == 9);
+        release.countDown();
+
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("patient-1");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(loads.inFlight()).isZero();
+    }
+
+    @Test
+    void waitingCallersShareTheFailure() {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = async(() -> loads.execute(1L, key -> {
+            await(release);
+            throw new IllegalStateException("patient-service unavailable");
+        }));
+        waitUntil(() -> loads.inFlight() == 1);
+        CompletableFuture<String> second = async(() -> loads.execute(1L, key -> "unused"));
+        waitUntil(() -> collapsed() == 1);
+        release.countDown();
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void remembersNothingOnceACallCompletes() {
+        AtomicInteger calls = new AtomicInteger();
+
+        loads.execute(1L, key -> "load-" + calls.incrementAndGet());
+
+        assertThat(loads.execute(1L, key -> "load-" + calls.incrementAndGet())).isEqualTo("load-2");
+    }
+
+    @Test
+    void bulkCallJoinsKeysAlreadyInFlightAndLoadsTheRest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> single = async(() -> loads.execute(1L, key -> {
+            await(release);
+            return "patient-1";
+        }));
+        waitUntil(() -> loads.inFlight() == 1);
+
+        Queue<Set<Long>> requested = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Map<Long, String>> bulk = async(() -> loads.executeAll(List.of(1L, 2L, 3L), keys -> {
+            requested.add(keys);
+            return Map.of(2L, "patient-2");
+        }));
+        waitUntil(() -> !requested.isEmpty());
+        release.countDown();
+
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).containsOnly(Map.entry(1L, "patient-1"), Map.entry(2L, "patient-2"));
+        assertThat(requested).containsExactly(Set.of(2L, 3L));
+        assertThat(single.get(5, TimeUnit.SECONDS)).isEqualTo("patient-1");
+    }
+
+    @Test
+    void overlappingBulkCallsLoadEachKeyOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Queue<Long> loaded = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<Map<Long, String>> first = async(() -> loads.executeAll(List.of(1L, 2L), keys -> {
+            loaded.addAll(keys);
+            await(release);
+            return Map.of(1L, "patient-1", 2L, "patient-2");
+        }));
+        waitUntil(() -> loaded.size() == 2);
+        CompletableFuture<Map<Long, String>> second = async(() -> loads.executeAll(List.of(2L, 3L), keys -> {
+            loaded.addAll(keys);
+            return Map.of(3L, "patient-3");
+        }));
+        waitUntil(() -> loaded.size() == 3);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsOnlyKeys(1L, 2L);
+        assertThat(second.get(5, TimeUnit.SECONDS)).containsOnly(Map.entry(2L, "patient-2"), Map.entry(3L, "patient-3"));
+        assertThat(loaded).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void bulkFailurePropagatesToTheCallerAndLeavesJoinedKeysOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Map<Long, String>> failing = async(() -> loads.executeAll(List.of(1L), keys -> {
+            await(release);
+            throw new IllegalStateException("patient-service unavailable");
+        }));
+        waitUntil(() -> loads.inFlight() == 1);
+        CompletableFuture<Map<Long, String>> joining = async(() -> loads.executeAll(List.of(1L, 2L),
+                keys -> Map.of(2L, "patient-2")));
+        waitUntil(() -> collapsed() == 1);
+        release.countDown();
+
+        assertThatThrownBy(failing::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(joining.get(5, TimeUnit.SECONDS)).containsOnly(Map.entry(2L, "patient-2"));
+        assertThat(loads.inFlight()).isZero();
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, callers);
+    }
+
+    private double collapsed() {
+        return meterRegistry.get("ihms.singleflight.calls").tag("result", "collapsed").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
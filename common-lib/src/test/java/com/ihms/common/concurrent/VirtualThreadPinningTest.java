@@ -0,0 +1,142 @@
+package com.ihms.common.concurrent;
+
+import com.ihms.common.cache.NearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails when the shared caching and enrichment primitives pin a carrier thread, i.e. a virtual
+ * thread blocks while holding a monitor. The services run their request handling on these paths
+ * once {@code spring.threads.virtual.enabled} is on.
+ */
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int CALLERS = 200;
+
+    private final Object monitor = new Object();
+
+    @Test
+    void detectsAVirtualThreadBlockedInsideAMonitor() throws Exception {
+        // From JDK 24 on, blocking inside synchronized no longer pins
+        assumeTrue(Runtime.version().feature() < 24);
+
+        List<RecordedEvent> pinned = pinnedDuring(() -> onVirtualThreads(1, i -> {
+            synchronized (monitor) {
+                sleep(20);
+            }
+            return null;
+        }));
+
+        assertThat(pinned).isNotEmpty();
+    }
+
+    @Test
+    void cacheLoadsAndEnrichmentDoNotPin() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NearCache<Long, String> cache = new NearCache<>("pinning", 1_000, Duration.ofMinutes(5),
+                Duration.ofMinutes(30), meterRegistry);
+        SingleFlight<Long, String> loads = new SingleFlight<>("pinning", meterRegistry);
+        EnrichmentExecutor enrichment = new EnrichmentExecutor(16, Duration.ofSeconds(5));
+
+        try {
+            List<RecordedEvent> pinned = pinnedDuring(() -> onVirtualThreads(CALLERS, i -> {
+                // Few distinct keys, so callers contend on the same in-flight loads and cache entries
+                Long key = (long) (i % 10);
+                cache.get(key, id -> loads.execute(id, this::slowLoad));
+                cache.getAll(List.of(key, key + 1), missing -> loads.executeAll(missing, toLoad -> toLoad.stream()
+                        .collect(Collectors.toMap(Function.identity(), this::slowLoad))));
+                enrichment.fetchAll(LongStream.range(0, 5).boxed().toList(), this::slowLoad);
+                if (i % 25 == 0) {
+                    cache.invalidateAll();
+                }
+                return null;
+            }));
+
+            assertThat(pinned).as(() -> describe(pinned)).isEmpty();
+        } finally {
+            enrichment.shutdown();
+        }
+    }
+
+    private String slowLoad(Long id) {
+        sleep(5);
+        return "value-" + id;
+    }
+
+    private static void onVirtualThreads(int callers, Function<Integer, Void> work) throws Exception {
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                int caller = i;
+                calls.add(CompletableFuture.supplyAsync(() -> work.apply(caller), executor));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get();
+        }
+    }
+
+    private static List<RecordedEvent> pinnedDuring(Workload workload) throws Exception {
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static String describe(List<RecordedEvent> pinned) {
+        if (pinned.isEmpty() || pinned.get(0).getStackTrace() == null) {
+            return pinned.size() + " pinned virtual threads";
+        }
+        return pinned.size() + " pinned virtual threads, first at:\n" + pinned.get(0).getStackTrace().getFrames()
+                .stream()
+                .limit(15)
+                .map(VirtualThreadPinningTest::frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return "  " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ihms.common.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSignerTest {
+
+    private static final String SECRET = "event-signing-secret-that-is-long-enough-for-hmac";
+    private static final byte[] BATCH = "[{\"id\":1,\"eventType\":\"PATIENT_UPDATED\"}]".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void verifiesItsOwnSignature() {
+        EventSigner signer = new EventSigner(SECRET, "");
+
+        assertThat(signer.verify(BATCH, signer.sign(BATCH))).isTrue();
+    }
+
+    @Test
+    void rejectsATamperedBody() {
+        EventSigner signer = new EventSigner(SECRET, "");
+        String signature = signer.sign(BATCH);
+
+        byte[] tampered = "[{\"id\":1,\"eventType\":\"PATIENT_DELETED\"}]".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(signer.verify(tampered, signature)).isFalse();
+    }
+
+    @Test
+    void rejectsSignaturesMadeWithAnotherKey() {
+        EventSigner sender = new EventSigner("some-other-secret-that-is-also-long-enough", "");
+        EventSigner receiver = new EventSigner(SECRET, "");
+
+        assertThat(receiver.verify(BATCH, sender.sign(BATCH))).isFalse();
+    }
+
+    @Test
+    void rejectsMissingOrMalformedSignatures() {
+        EventSigner signer = new EventSigner(SECRET, "");
+
+        assertThat(signer.verify(BATCH, null)).isFalse();
+        assertThat(signer.verify(BATCH, "not base64 !")).isFalse();
+    }
+
+    @Test
+    void unconfiguredSignerVerifiesNothing() {
+        EventSigner signer = new EventSigner("", "");
+
+        assertThat(signer.isConfigured()).isFalse();
+        assertThat(signer.verify(BATCH, "anything")).isFalse();
+        assertThatThrownBy(() -> signer.sign(BATCH)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void refusesToReuseTheIdentityAssertionSecret() {
+        assertThatThrownBy(() -> new EventSigner(SECRET, SECRET)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ihms.common.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The vectors here are shared with {@code IdentityAssertionSignerTest} in gateway-service; change
+ * both sides together or trusted gateway mode stops authenticating.
+ */
+class GatewayIdentityVerifierTest {
+
+    private static final String SECRET = "test-gateway-secret-0123456789abcdef";
+    private static final String EXPIRES = "4102444800000";
+    private static final String SIGNATURE = "bMYC2cLYgWIf5C3UDfSzRSqC110TtWm7YI0sm5nY0j8";
+    private static final String EXPIRED = "946684800000";
+    private static final String EXPIRED_SIGNATURE = "FbrBMBnRsdsblsd94t26HY002NGw2nXji8IKysV9oys";
+
+    private final GatewayIdentityVerifier verifier = new GatewayIdentityVerifier(true, SECRET);
+
+    @Test
+    void acceptsAValidAssertion() {
+        assertThat(verifier.verify(request("alice", "DOCTOR", EXPIRES, SIGNATURE)))
+                .contains(new JwtPrincipal("alice", "DOCTOR", Long.parseLong(EXPIRES)));
+    }
+
+    @Test
+    void rejectsATamperedRole() {
+        assertThat(verifier.verify(request("alice", "ADMIN", EXPIRES, SIGNATURE))).isEmpty();
+    }
+
+    @Test
+    void rejectsAnExpiredAssertion() {
+        assertThat(verifier.verify(request("alice", "DOCTOR", EXPIRED, EXPIRED_SIGNATURE))).isEmpty();
+    }
+
+    @Test
+    void rejectsASignatureMadeWithAnotherSecret() {
+        GatewayIdentityVerifier other = new GatewayIdentityVerifier(true, SECRET + "x");
+        assertThat(other.verify(request("alice", "DOCTOR", EXPIRES, SIGNATURE))).isEmpty();
+    }
+
+    @Test
+    void ignoresHeadersWhenDisabledAndRequiresASecretWhenEnabled() {
+        assertThat(new GatewayIdentityVerifier(false, "").verify(request("alice", "DOCTOR", EXPIRES, SIGNATURE)))
+                .isEmpty();
+        assertThatThrownBy(() -> new GatewayIdentityVerifier(true, " "))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static MockHttpServletRequest request(String userId, String role, String expires, String signature) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(GatewayIdentityVerifier.USER_ID_HEADER, userId);
+        request.addHeader(GatewayIdentityVerifier.USER_ROLE_HEADER, role);
+        request.addHeader(GatewayIdentityVerifier.EXPIRES_HEADER, expires);
+        request.addHeader(GatewayIdentityVerifier.SIGNATURE_HEADER, signature);
+        return request;
+    }
+}
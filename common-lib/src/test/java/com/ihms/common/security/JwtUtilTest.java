@@ -0,0 +1,76 @@
+package com.ihms.common.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    static final String SECRET = "test-secret-key-that-is-at-least-256-bits-long-for-hs256";
+
+    private final JwtUtil jwtUtil = newJwtUtil(SECRET);
+
+    static JwtUtil newJwtUtil(String secret) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(util, "verifiedCacheSize", 100);
+        util.init();
+        return util;
+    }
+
+    @Test
+    void verifyReturnsSubjectRoleAndExpiry() {
+        String token = jwtUtil.generateToken("dr.house", "DOCTOR");
+
+        JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+        assertThat(principal.subject()).isEqualTo("dr.house");
+        assertThat(principal.role()).isEqualTo("DOCTOR");
+        assertThat(principal.isExpired(System.currentTimeMillis())).isFalse();
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("dr.house");
+        assertThat(jwtUtil.extractRole(token)).isEqualTo("DOCTOR");
+    }
+
+    @Test
+    void repeatedVerificationReturnsCachedPrincipal() {
+        String token = jwtUtil.generateToken("nurse.joy", "NURSE");
+
+        assertThat(jwtUtil.verify(token).orElseThrow()).isSameAs(jwtUtil.verify(token).orElseThrow());
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String forged = newJwtUtil(SECRET + "-other").generateToken("mallory", "ADMIN");
+
+        assertThat(jwtUtil.verify(forged)).isEmpty();
+        assertThat(jwtUtil.validateToken(forged)).isFalse();
+    }
+
+    @Test
+    void rejectsExpiredAndMalformedTokens() {
+        String expired = Jwts.builder()
+                .subject("dr.house")
+                .claim("role", "DOCTOR")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(jwtUtil.verify(expired)).isEmpty();
+        assertThat(jwtUtil.verify("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    void validateTokenChecksUsername() {
+        String token = jwtUtil.generateToken("dr.house", "DOCTOR");
+
+        assertThat(jwtUtil.validateToken(token, "dr.house")).isTrue();
+        assertThat(jwtUtil.validateToken(token, "dr.wilson")).isFalse();
+    }
+}
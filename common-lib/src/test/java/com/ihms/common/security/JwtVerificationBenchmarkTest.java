@@ -0,0 +1,44 @@
+package com.ihms.common.security;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class JwtVerificationBenchmarkTest {
+
+    @Test
+    void perRequestVerificationIsAtLeastFourTimesCheaper() throws RunnerException {
+        // Forks are disabled because the Gradle test worker's classpath is not visible to a child JVM
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getName())
+                .forks(0)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        double before = score(results, "fourVerifications");
+        double single = score(results, "singleVerification");
+        double cached = score(results, "cachedVerification");
+
+        assertThat(before / cached).isGreaterThanOrEqualTo(4.0);
+        // A token seen for the first time still pays for one HMAC check instead of four
+        assertThat(before / single).isGreaterThanOrEqualTo(3.0);
+    }
+
+    private static double score(Collection<RunResult> results, String benchmark) {
+        return results.stream()
+                .filter(result -> result.getParams().getBenchmark().endsWith("." + benchmark))
+                .findFirst()
+                .orElseThrow()
+                .getPrimaryResult()
+                .getScore();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ihms.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void returnsCachedTokenUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        long now = System.currentTimeMillis();
+        JwtPrincipal live = new JwtPrincipal("alice", "DOCTOR", now + 60_000);
+        JwtPrincipal expired = new JwtPrincipal("bob", "NURSE", now - 1);
+
+        cache.put("token-a", live);
+        cache.put("token-b", expired);
+
+        assertThat(cache.get("token-a")).isEqualTo(live);
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(cache.get("token-c")).isNull();
+    }
+
+    @Test
+    void evictsOnlyTheLeastRecentlyUsedTokenWhenFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        cache.put("token-1", new JwtPrincipal("u1", "ADMIN", expiresAt));
+        cache.put("token-2", new JwtPrincipal("u2", "ADMIN", expiresAt));
+        cache.get("token-1");
+        cache.put("token-3", new JwtPrincipal("u3", "ADMIN", expiresAt));
+
+        assertThat(cache.get("token-1")).isNotNull();
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(cache.get("token-3")).isNotNull();
+    }
+
+    @Test
+    void burstOfNewTokensKeepsActiveUsers() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        cache.put("active", new JwtPrincipal("alice", "DOCTOR", expiresAt));
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("burst-" + i, new JwtPrincipal("u" + i, "PATIENT", expiresAt));
+            if (i % 50 == 0) {
+                assertThat(cache.get("active")).isNotNull();
+            }
+        }
+
+        assertThat(cache.get("active")).isNotNull();
+        assertThat(cache.get("burst-999")).isNotNull();
+        assertThat(cache.get("burst-0")).isNull();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ihms.gateway.filter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Signs the identity headers forwarded to downstream services with the shared internal key.
+ * Must produce the same payload as {@code com.ihms.common.security.GatewayIdentityVerifier}.
+ */
+class IdentityAssertionSigner {
+
+    private final ThreadLocal<Mac> mac;
+
+    IdentityAssertionSigner(String secret) {
+        this.mac = ThreadLocal.withInitial(() -> newMac(secret));
+    }
+
+    String sign(String userId, String role, String expires) {
+        byte[] payload = (userId + "\n" + role + "\n" + expires).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.get().doFinal(payload));
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ihms.gateway.filter;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,15 +16,21 @@ import reactor.core.publisher.Mono;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    @Value("${jwt.secret:ihms-secret-key-that-should-be-at-least-256-bits-long-for-hs256}")
-    private String secret;
+    // Upper bound for caching tokens that carry no exp claim
+    private static final long MAX_CACHE_MILLIS = 5 * 60 * 1000L;
 
-    private final List<String> openEndpoints = List.of(
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USER_ROLE_HEADER = "X-User-Role";
+    private static final String EXPIRES_HEADER = "X-Auth-Expires";
+    private static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    private final PathPrefixTrie openEndpoints = new PathPrefixTrie(List.of(
             "/api/auth/login",
             "/api/auth/register",
             "/eureka",
@@ -31,16 +38,45 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             "/swagger-ui",
             "/v3/api-docs",
             "/webjars"
-    );
+    ));
+
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache tokenCache;
+    private final IdentityAssertionSigner assertionSigner;
+
+    public JwtAuthenticationFilter(
+            @Value("${jwt.secret:ihms-secret-key-that-should-be-at-least-256-bits-long-for-hs256}") String secret,
+            @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize,
+            @Value("${ihms.security.trusted-gateway.enabled:false}") boolean trustedGatewayEnabled,
+            @Value("${ihms.security.trusted-gateway.secret:}") String internalSecret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.tokenCache = new VerifiedTokenCache(verifiedCacheSize);
+
+        if (trustedGatewayEnabled && internalSecret.isBlank()) {
+            throw new IllegalStateException("ihms.security.trusted-gateway.secret must be set when trusted gateway mode is enabled");
+        }
+        this.assertionSigner = trustedGatewayEnabled ? new IdentityAssertionSigner(internalSecret) : null;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
+        // Never forward identity headers supplied by the client
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_ROLE_HEADER);
+                    headers.remove(EXPIRES_HEADER);
+                    headers.remove(SIGNATURE_HEADER);
+                })
+                .build();
         String path = request.getPath().value();
 
         // Skip authentication for open endpoints
         if (isOpenEndpoint(path)) {
-            return chain.filter(exchange);
+            return chain.filter(exchange.mutate().request(request).build());
         }
 
         String authHeader = request.getHeaders().getFirst("Authorization");
@@ -53,13 +89,18 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         String token = authHeader.substring(7);
 
         try {
-            Claims claims = validateToken(token);
+            VerifiedTokenCache.VerifiedToken verified = validateToken(token);
 
             // Add user info to headers for downstream services
-            ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Id", claims.getSubject())
-                    .header("X-User-Role", claims.get("role", String.class))
-                    .build();
+            ServerHttpRequest.Builder builder = request.mutate()
+                    .header(USER_ID_HEADER, verified.subject())
+                    .header(USER_ROLE_HEADER, verified.role());
+            if (assertionSigner != null) {
+                String expires = Long.toString(verified.expiresAtMillis());
+                builder.header(EXPIRES_HEADER, expires)
+                        .header(SIGNATURE_HEADER, assertionSigner.sign(verified.subject(), verified.role(), expires));
+            }
+            ServerHttpRequest modifiedRequest = builder.build();
 
             return chain.filter(exchange.mutate().request(modifiedRequest).build());
         } catch (Exception e) {
@@ -69,16 +110,24 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     }
 
     private boolean isOpenEndpoint(String path) {
-        return openEndpoints.stream().anyMatch(path::startsWith);
+        return openEndpoints.matchesPrefixOf(path);
     }
 
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private VerifiedTokenCache.VerifiedToken validateToken(String token) {
+        VerifiedTokenCache.VerifiedToken cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        long now = System.currentTimeMillis();
+        long expiresAt = expiration != null ? expiration.getTime() : now + MAX_CACHE_MILLIS;
+
+        VerifiedTokenCache.VerifiedToken verified = new VerifiedTokenCache.VerifiedToken(
+                claims.getSubject(), claims.get("role", String.class), expiresAt);
+        tokenCache.put(token, verified);
+        return verified;
     }
 
     @Override
@@ -86,4 +135,3 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         return -100;
     }
 }
-
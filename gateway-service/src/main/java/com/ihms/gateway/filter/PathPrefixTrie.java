@@ -0,0 +1,49 @@
+package com.ihms.gateway.filter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Character trie over path prefixes. {@link #matchesPrefixOf(String)} answers
+ * "does any registered prefix start this path" in O(path length), independent of how many
+ * prefixes are registered.
+ */
+class PathPrefixTrie {
+
+    private final Node root = new Node();
+
+    PathPrefixTrie(Collection<String> prefixes) {
+        prefixes.forEach(this::add);
+    }
+
+    private void add(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+        }
+        node.terminal = true;
+    }
+
+    boolean matchesPrefixOf(String path) {
+        Node node = root;
+        if (node.terminal) {
+            return true;
+        }
+        for (int i = 0; i < path.length(); i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ihms.gateway.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified, keyed by the SHA-256 of the
+ * token so raw tokens are never retained. Entries expire at the token's own {@code exp}; when
+ * the cache is full the least recently used entry is evicted.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<TokenHash, VerifiedToken> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        // Access order, so a burst of new tokens evicts the least recently used ones one at a time
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenHash, VerifiedToken> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    VerifiedToken get(String token) {
+        TokenHash key = hash(token);
+        lock.lock();
+        try {
+            VerifiedToken verified = entries.get(key);
+            if (verified == null) {
+                return null;
+            }
+            if (verified.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                return null;
+            }
+            return verified;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(String token, VerifiedToken verified) {
+        TokenHash key = hash(token);
+        lock.lock();
+        try {
+            entries.put(key, verified);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static TokenHash hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        ByteBuffer bytes = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenHash(bytes.getLong(), bytes.getLong(), bytes.getLong(), bytes.getLong());
+    }
+
+    private record TokenHash(long a, long b, long c, long d) {
+    }
+
+    record VerifiedToken(String subject, String role, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ihms.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The vectors here are shared with {@code GatewayIdentityVerifierTest} in common-lib; change
+ * both sides together or trusted gateway mode stops authenticating.
+ */
+class IdentityAssertionSignerTest {
+
+    static final String SECRET = "test-gateway-secret-0123456789abcdef";
+    static final String EXPIRES = "4102444800000";
+    static final String SIGNATURE = "bMYC2cLYgWIf5C3UDfSzRSqC110TtWm7YI0sm5nY0j8";
+    static final String EXPIRED = "946684800000";
+    static final String EXPIRED_SIGNATURE = "FbrBMBnRsdsblsd94t26HY002NGw2nXji8IKysV9oys";
+
+    private final IdentityAssertionSigner signer = new IdentityAssertionSigner(SECRET);
+
+    @Test
+    void matchesTheSharedTestVectors() {
+        assertThat(signer.sign("alice", "DOCTOR", EXPIRES)).isEqualTo(SIGNATURE);
+        assertThat(signer.sign("alice", "DOCTOR", EXPIRED)).isEqualTo(EXPIRED_SIGNATURE);
+    }
+
+    @Test
+    void signatureChangesWithRoleAndSecret() {
+        assertThat(signer.sign("alice", "ADMIN", EXPIRES)).isNotEqualTo(SIGNATURE);
+        assertThat(new IdentityAssertionSigner(SECRET + "x").sign("alice", "DOCTOR", EXPIRES)).isNotEqualTo(SIGNATURE);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ihms.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathPrefixTrieTest {
+
+    private final PathPrefixTrie trie = new PathPrefixTrie(List.of(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/actuator",
+            "/v3/api-docs"
+    ));
+
+    @Test
+    void matchesRegisteredPrefixesAndLongerPaths() {
+        assertThat(trie.matchesPrefixOf("/api/auth/login")).isTrue();
+        assertThat(trie.matchesPrefixOf("/actuator/health")).isTrue();
+        assertThat(trie.matchesPrefixOf("/v3/api-docs/swagger-config")).isTrue();
+    }
+
+    @Test
+    void rejectsPathsThatOnlyShareAPartialPrefix() {
+        assertThat(trie.matchesPrefixOf("/api/auth")).isFalse();
+        assertThat(trie.matchesPrefixOf("/api/auth/logout")).isFalse();
+        assertThat(trie.matchesPrefixOf("/api/patients")).isFalse();
+        assertThat(trie.matchesPrefixOf("")).isFalse();
+    }
+
+    @Test
+    void emptyPrefixMatchesEverything() {
+        PathPrefixTrie all = new PathPrefixTrie(List.of(""));
+
+        assertThat(all.matchesPrefixOf("/anything")).isTrue();
+    }
+
+    @Test
+    void noPrefixesMatchesNothing() {
+        assertThat(new PathPrefixTrie(List.of()).matchesPrefixOf("/api/auth/login")).isFalse();
+    }
+}
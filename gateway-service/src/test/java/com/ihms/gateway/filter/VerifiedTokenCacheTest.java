@@ -0,0 +1,56 @@
+package com.ihms.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void returnsCachedTokenUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.VerifiedToken live = new VerifiedTokenCache.VerifiedToken("alice", "DOCTOR", now + 60_000);
+        VerifiedTokenCache.VerifiedToken expired = new VerifiedTokenCache.VerifiedToken("bob", "NURSE", now - 1);
+
+        cache.put("token-a", live);
+        cache.put("token-b", expired);
+
+        assertThat(cache.get("token-a")).isEqualTo(live);
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(cache.get("token-c")).isNull();
+    }
+
+    @Test
+    void evictsOnlyTheLeastRecentlyUsedTokenWhenFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        cache.put("token-1", new VerifiedTokenCache.VerifiedToken("u1", "ADMIN", expiresAt));
+        cache.put("token-2", new VerifiedTokenCache.VerifiedToken("u2", "ADMIN", expiresAt));
+        cache.get("token-1");
+        cache.put("token-3", new VerifiedTokenCache.VerifiedToken("u3", "ADMIN", expiresAt));
+
+        assertThat(cache.get("token-1")).isNotNull();
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(cache.get("token-3")).isNotNull();
+    }
+
+    @Test
+    void burstOfNewTokensKeepsActiveUsers() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        cache.put("active", new VerifiedTokenCache.VerifiedToken("alice", "DOCTOR", expiresAt));
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("burst-" + i, new VerifiedTokenCache.VerifiedToken("u" + i, "PATIENT", expiresAt));
+            if (i % 50 == 0) {
+                assertThat(cache.get("active")).isNotNull();
+            }
+        }
+
+        assertThat(cache.get("active")).isNotNull();
+        assertThat(cache.get("burst-999")).isNotNull();
+        assertThat(cache.get("burst-0")).isNull();
+    }
+}
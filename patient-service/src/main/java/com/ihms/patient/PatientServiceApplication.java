@@ -3,9 +3,11 @@ package com.ihms.patient;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.ihms.patient", "com.ihms.common"})
 @EnableDiscoveryClient
+@EnableScheduling
 public class PatientServiceApplication {
 
     public static void main(String[] args) {
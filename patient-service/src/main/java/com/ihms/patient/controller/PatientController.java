@@ -2,14 +2,18 @@ package com.ihms.patient.controller;
 
 import com.ihms.common.dto.ApiResponse;
 import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.web.KeysetPagination;
 import com.ihms.patient.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,21 +25,41 @@ public class PatientController {
     private final PatientService patientService;
 
     @GetMapping
-    @Operation(summary = "Get all patients")
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> getAllPatients() {
+    @Operation(summary = "Get all patients, or one keyset page when after/limit are given")
+    public ResponseEntity<ApiResponse<List<PatientDTO>>> getAllPatients(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.isRequested(after, limit)) {
+            return ResponseEntity.ok(ApiResponse.success(patientService.getPatientsPage(after, limit)));
+        }
         return ResponseEntity.ok(ApiResponse.success(patientService.getAllPatients()));
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all patients as NDJSON")
+    public void exportPatients(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        patientService.exportPatients(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get patient by ID")
     public ResponseEntity<ApiResponse<PatientDTO>> getPatientById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(patientService.getPatientById(id)));
     }
 
+    @PostMapping("/by-ids")
+    @Operation(summary = "Get patients by a list of IDs")
+    public ResponseEntity<ApiResponse<List<PatientDTO>>> getPatientsByIds(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(patientService.getPatientsByIds(ids)));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search patients by name")
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> searchPatients(@RequestParam String name) {
-        return ResponseEntity.ok(ApiResponse.success(patientService.searchPatients(name)));
+    @Operation(summary = "Search patients by name, best matches first")
+    public ResponseEntity<ApiResponse<List<PatientDTO>>> searchPatients(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(patientService.searchPatients(name, limit)));
     }
 
     @PostMapping
@@ -1,22 +1,36 @@
 package com.ihms.patient.repository;
 
 import com.ihms.patient.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmail(String email);
     boolean existsByEmail(String email);
 
-    @Query("SELECT p FROM Patient p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%', :name, '%')) " +
-           "OR LOWER(p.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Patient> searchByName(String name);
+    // ILIKE on the raw columns lets the planner use the pg_trgm GIN indexes
+    @Query(value = "SELECT * FROM patients p WHERE p.first_name ILIKE CONCAT('%', :name, '%') " +
+                   "OR p.last_name ILIKE CONCAT('%', :name, '%') " +
+                   "ORDER BY GREATEST(similarity(p.first_name, :name), similarity(p.last_name, :name)) DESC, p.last_name, p.first_name LIMIT :limit",
+           nativeQuery = true)
+    List<Patient> searchByName(@Param("name") String name, @Param("limit") int limit);
 
     List<Patient> findByBloodGroup(String bloodGroup);
-}
 
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Patient p ORDER BY p.id")
+    Stream<Patient> streamAllOrderById();
+}
@@ -1,23 +1,44 @@
 package com.ihms.patient.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.cache.PatientSummaryCache;
 import com.ihms.common.dto.PatientDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxWriter;
 import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.transaction.AfterCommit;
+import com.ihms.common.web.KeysetPagination;
+import com.ihms.common.web.NdjsonWriter;
+import com.ihms.common.web.SearchLimit;
 import com.ihms.patient.entity.Patient;
 import com.ihms.patient.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final PatientSummaryCache patientSummaryCache;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final OutboxWriter outboxWriter;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
 
     public List<PatientDTO> getAllPatients() {
         return patientRepository.findAll().stream()
@@ -25,14 +46,39 @@ public class PatientService {
                 .collect(Collectors.toList());
     }
 
+    public List<PatientDTO> getPatientsPage(Long after, Integer limit) {
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(
+                        KeysetPagination.after(after), KeysetPagination.limit(limit)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public void exportPatients(OutputStream out) throws IOException {
+        try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+            new NdjsonWriter(out, objectMapper).writeAll(patients, EXPORT_CHUNK_SIZE,
+                    chunk -> chunk.stream().map(this::toDTO).collect(Collectors.toList()),
+                    entityManager::clear);
+        }
+    }
+
     public PatientDTO getPatientById(Long id) {
-        return patientRepository.findById(id)
+        return patientSummaryCache.getPatient(id, key -> patientRepository.findById(key)
                 .map(this::toDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Patient", id));
+                .orElseThrow(() -> new ResourceNotFoundException("Patient", key)));
+    }
+
+    public List<PatientDTO> getPatientsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return patientRepository.findAllById(new HashSet<>(ids)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
     }
 
-    public List<PatientDTO> searchPatients(String name) {
-        return patientRepository.searchByName(name).stream()
+    public List<PatientDTO> searchPatients(String name, Integer limit) {
+        return patientRepository.searchByName(name, SearchLimit.clamp(limit)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
@@ -69,7 +115,10 @@ public class PatientService {
         }
 
         Patient updated = patientRepository.save(patient);
-        return toDTO(updated);
+        AfterCommit.run(() -> patientSummaryCache.invalidate(id));
+        PatientDTO result = toDTO(updated);
+        outboxWriter.append(EventTypes.PATIENT, id, EventTypes.PATIENT_UPDATED, result);
+        return result;
     }
 
     @Transactional
@@ -78,6 +127,8 @@ public class PatientService {
             throw new ResourceNotFoundException("Patient", id);
         }
         patientRepository.deleteById(id);
+        AfterCommit.run(() -> patientSummaryCache.invalidate(id));
+        outboxWriter.append(EventTypes.PATIENT, id, EventTypes.PATIENT_DELETED, Map.of("id", id));
     }
 
     private PatientDTO toDTO(Patient patient) {
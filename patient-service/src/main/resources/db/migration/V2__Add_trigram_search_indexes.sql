@@ -0,0 +1,6 @@
+-- V2__Add_trigram_search_indexes.sql
+-- Trigram GIN indexes serve the ILIKE '%term%' name searches that btree indexes cannot
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_patients_first_name_trgm ON patients USING gin (first_name gin_trgm_ops);
+CREATE INDEX idx_patients_last_name_trgm ON patients USING gin (last_name gin_trgm_ops);
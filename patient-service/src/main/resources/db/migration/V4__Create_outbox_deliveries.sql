@@ -0,0 +1,15 @@
+-- V4__Create_outbox_deliveries.sql
+-- Per-subscriber delivery state for the http event broker. A row exists only while a subscriber
+-- still owes an event (parked behind a failed delivery) or after the event was dead-lettered for it.
+CREATE TABLE outbox_deliveries (
+    subscriber VARCHAR(255) NOT NULL,
+    event_id BIGINT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    dead_at TIMESTAMP,
+    PRIMARY KEY (subscriber, event_id)
+);
+
+CREATE INDEX idx_outbox_deliveries_parked ON outbox_deliveries(subscriber, event_id) WHERE dead_at IS NULL;
+CREATE INDEX idx_outbox_deliveries_event ON outbox_deliveries(event_id);
@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.ihms.pharmacy", "com.ihms.common"})
 @EnableDiscoveryClient
 @EnableFeignClients
+@EnableScheduling
 public class PharmacyServiceApplication {
 
     public static void main(String[] args) {
@@ -1,10 +1,9 @@
 package com.ihms.pharmacy.config;
 
+import com.ihms.common.web.ForwardedAuthorization;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 @Configuration
 public class FeignConfig {
@@ -12,12 +11,9 @@ public class FeignConfig {
     @Bean
     public RequestInterceptor requestInterceptor() {
         return requestTemplate -> {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                String authHeader = attributes.getRequest().getHeader("Authorization");
-                if (authHeader != null) {
-                    requestTemplate.header("Authorization", authHeader);
-                }
+            String authHeader = ForwardedAuthorization.current();
+            if (authHeader != null) {
+                requestTemplate.header(ForwardedAuthorization.HEADER, authHeader);
             }
         };
     }
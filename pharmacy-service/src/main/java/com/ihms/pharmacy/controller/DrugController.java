@@ -33,9 +33,11 @@ public class DrugController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search drugs by name")
-    public ResponseEntity<ApiResponse<List<DrugDTO>>> searchDrugs(@RequestParam String name) {
-        return ResponseEntity.ok(ApiResponse.success(drugService.searchDrugs(name)));
+    @Operation(summary = "Search drugs by name, best matches first")
+    public ResponseEntity<ApiResponse<List<DrugDTO>>> searchDrugs(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(drugService.searchDrugs(name, limit)));
     }
 
     @GetMapping("/low-stock")
@@ -0,0 +1,39 @@
+package com.ihms.pharmacy.controller;
+
+import com.ihms.common.dto.ApiResponse;
+import com.ihms.common.dto.InventoryAlertDTO;
+import com.ihms.pharmacy.service.InventoryAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/inventory/alerts")
+@RequiredArgsConstructor
+@Tag(name = "Inventory Alerts", description = "APIs for low-stock, out-of-stock and expiry alerts")
+public class InventoryAlertController {
+
+    private final InventoryAlertService inventoryAlertService;
+
+    @GetMapping
+    @Operation(summary = "Get current inventory alerts, optionally filtered by type")
+    public ResponseEntity<ApiResponse<List<InventoryAlertDTO>>> getAlerts(
+            @RequestParam(required = false) String type) {
+        return ResponseEntity.ok(ApiResponse.success(inventoryAlertService.getAlerts(type)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream inventory alert changes as server-sent events")
+    public SseEmitter streamAlerts() {
+        return inventoryAlertService.subscribe();
+    }
+}
@@ -2,14 +2,19 @@ package com.ihms.pharmacy.controller;
 
 import com.ihms.common.dto.ApiResponse;
 import com.ihms.common.dto.PrescriptionDTO;
+import com.ihms.common.dto.PrescriptionSummaryDTO;
+import com.ihms.common.web.KeysetPagination;
 import com.ihms.pharmacy.service.PrescriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,11 +26,23 @@ public class PrescriptionController {
     private final PrescriptionService prescriptionService;
 
     @GetMapping
-    @Operation(summary = "Get all prescriptions")
-    public ResponseEntity<ApiResponse<List<PrescriptionDTO>>> getAllPrescriptions() {
+    @Operation(summary = "Get all prescriptions, or one keyset page when after/limit are given")
+    public ResponseEntity<ApiResponse<List<PrescriptionDTO>>> getAllPrescriptions(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.isRequested(after, limit)) {
+            return ResponseEntity.ok(ApiResponse.success(prescriptionService.getPrescriptionsPage(after, limit)));
+        }
         return ResponseEntity.ok(ApiResponse.success(prescriptionService.getAllPrescriptions()));
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all prescriptions as NDJSON")
+    public void exportPrescriptions(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        prescriptionService.exportPrescriptions(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get prescription by ID")
     public ResponseEntity<ApiResponse<PrescriptionDTO>> getPrescriptionById(@PathVariable Long id) {
@@ -44,6 +61,14 @@ public class PrescriptionController {
         return ResponseEntity.ok(ApiResponse.success(prescriptionService.getPendingPrescriptions()));
     }
 
+    @GetMapping("/pending/summary")
+    @Operation(summary = "Get one keyset page of pending prescription summaries, without items")
+    public ResponseEntity<ApiResponse<List<PrescriptionSummaryDTO>>> getPendingPrescriptionSummaries(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(prescriptionService.getPendingPrescriptionSummaries(after, limit)));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new prescription")
     public ResponseEntity<ApiResponse<PrescriptionDTO>> createPrescription(@RequestBody PrescriptionDTO prescriptionDTO) {
@@ -51,6 +76,13 @@ public class PrescriptionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Prescription created", created));
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create many prescriptions in one request")
+    public ResponseEntity<ApiResponse<List<PrescriptionDTO>>> createPrescriptions(@RequestBody List<PrescriptionDTO> prescriptionDTOs) {
+        List<PrescriptionDTO> created = prescriptionService.createPrescriptions(prescriptionDTOs);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Prescriptions created", created));
+    }
+
     @PostMapping("/{id}/dispense")
     @Operation(summary = "Dispense a prescription")
     public ResponseEntity<ApiResponse<PrescriptionDTO>> dispensePrescription(@PathVariable Long id) {
@@ -1,6 +1,7 @@
 package com.ihms.pharmacy.controller;
 
 import com.ihms.common.dto.ApiResponse;
+import com.ihms.common.dto.CatalogSuggestionDTO;
 import com.ihms.common.dto.ProductDTO;
 import com.ihms.pharmacy.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -51,9 +52,19 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search products by keyword")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(ApiResponse.success(productService.searchProducts(keyword)));
+    @Operation(summary = "Search products by keyword, best matches first")
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(productService.searchProducts(keyword, limit)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Typeahead suggestions across products and drugs by name, SKU, barcode, brand or generic name")
+    public ResponseEntity<ApiResponse<List<CatalogSuggestionDTO>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(productService.suggest(q, limit)));
     }
 
     @GetMapping("/low-stock")
@@ -57,6 +57,9 @@ public class Drug {
 
     private Boolean active;
 
+    @Version
+    private Long version;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
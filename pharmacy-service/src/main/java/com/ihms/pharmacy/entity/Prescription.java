@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "prescriptions")
@@ -19,7 +20,8 @@ import java.util.List;
 public class Prescription {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescription_seq")
+    @SequenceGenerator(name = "prescription_seq", sequenceName = "prescriptions_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -48,6 +50,9 @@ public class Prescription {
 
     private LocalDateTime dispensedAt;
 
+    @Version
+    private Long version;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -61,7 +66,8 @@ public class Prescription {
             status = Status.PENDING;
         }
         if (prescriptionNumber == null) {
-            prescriptionNumber = "RX-" + System.currentTimeMillis();
+            prescriptionNumber = "RX-" + System.currentTimeMillis() + "-"
+                    + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         }
     }
 
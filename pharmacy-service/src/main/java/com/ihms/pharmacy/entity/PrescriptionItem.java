@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class PrescriptionItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescription_item_seq")
+    @SequenceGenerator(name = "prescription_item_seq", sequenceName = "prescription_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
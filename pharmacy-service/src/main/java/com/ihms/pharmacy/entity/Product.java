@@ -71,6 +71,9 @@ public class Product {
     @Column(precision = 5, scale = 2)
     private BigDecimal discountPercent;
 
+    @Version
+    private Long version;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -2,7 +2,9 @@ package com.ihms.pharmacy.repository;
 
 import com.ihms.pharmacy.entity.Drug;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -18,9 +20,12 @@ public interface DrugRepository extends JpaRepository<Drug, Long> {
 
     List<Drug> findByManufacturer(String manufacturer);
 
-    @Query("SELECT d FROM Drug d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
-           "OR LOWER(d.genericName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Drug> searchByName(String name);
+    // ILIKE on the raw columns lets the planner use the pg_trgm GIN indexes
+    @Query(value = "SELECT * FROM drugs d WHERE d.name ILIKE CONCAT('%', :name, '%') " +
+                   "OR d.generic_name ILIKE CONCAT('%', :name, '%') " +
+                   "ORDER BY GREATEST(similarity(d.name, :name), similarity(COALESCE(d.generic_name, ''), :name)) DESC, d.name LIMIT :limit",
+           nativeQuery = true)
+    List<Drug> searchByName(@Param("name") String name, @Param("limit") int limit);
 
     @Query("SELECT d FROM Drug d WHERE d.stockQuantity <= d.reorderLevel AND d.active = true")
     List<Drug> findLowStockDrugs();
@@ -29,5 +34,15 @@ public interface DrugRepository extends JpaRepository<Drug, Long> {
     List<Drug> findExpiringDrugs(LocalDate date);
 
     List<Drug> findByActiveTrue();
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Drug d SET d.stockQuantity = d.stockQuantity - :quantity, d.version = d.version + 1, " +
+           "d.updatedAt = CURRENT_TIMESTAMP WHERE d.id = :id AND d.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Drug d SET d.stockQuantity = d.stockQuantity + :quantity, d.version = d.version + 1, " +
+           "d.updatedAt = CURRENT_TIMESTAMP WHERE d.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
 
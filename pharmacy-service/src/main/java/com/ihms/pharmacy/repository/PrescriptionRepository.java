@@ -1,23 +1,56 @@
 package com.ihms.pharmacy.repository;
 
+import com.ihms.common.dto.PrescriptionSummaryDTO;
 import com.ihms.pharmacy.entity.Prescription;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
 
     Optional<Prescription> findByPrescriptionNumber(String prescriptionNumber);
 
+    @Override
+    @EntityGraph(attributePaths = {"items", "items.drug"})
+    List<Prescription> findAll();
+
+    @EntityGraph(attributePaths = {"items", "items.drug"})
     List<Prescription> findByPatientId(Long patientId);
 
     List<Prescription> findByDoctorId(Long doctorId);
 
+    @EntityGraph(attributePaths = {"items", "items.drug"})
     List<Prescription> findByStatus(Prescription.Status status);
 
     List<Prescription> findByPatientIdAndStatus(Long patientId, Prescription.Status status);
-}
 
+    // Page over ids first; a LIMIT on a collection fetch would be applied in memory
+    @Query("SELECT p.id FROM Prescription p WHERE p.id > :after ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"items", "items.drug"})
+    @Query("SELECT p FROM Prescription p WHERE p.id IN :ids ORDER BY p.id")
+    List<Prescription> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.ihms.common.dto.PrescriptionSummaryDTO(p.id, p.prescriptionNumber, p.patientId, " +
+           "p.doctorId, p.doctorName, CAST(p.status AS String), p.prescribedAt, SIZE(p.items)) " +
+           "FROM Prescription p WHERE p.status = :status AND p.id > :after ORDER BY p.id")
+    List<PrescriptionSummaryDTO> findSummariesByStatus(@Param("status") Prescription.Status status,
+                                                       @Param("after") Long after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Prescription p ORDER BY p.id")
+    Stream<Prescription> streamAllOrderById();
+}
@@ -2,6 +2,7 @@ package com.ihms.pharmacy.repository;
 
 import com.ihms.pharmacy.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,8 +23,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByCategoryAndActiveTrue(String category);
 
-    @Query("SELECT p FROM Product p WHERE p.active = true AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Product> searchByKeyword(@Param("keyword") String keyword);
+    // ILIKE on the raw columns lets the planner use the pg_trgm GIN indexes
+    @Query(value = "SELECT * FROM products p WHERE p.active = true " +
+                   "AND (p.name ILIKE CONCAT('%', :keyword, '%') OR p.description ILIKE CONCAT('%', :keyword, '%')) " +
+                   "ORDER BY similarity(p.name, :keyword) DESC, p.name LIMIT :limit",
+           nativeQuery = true)
+    List<Product> searchByKeyword(@Param("keyword") String keyword, @Param("limit") int limit);
 
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.stockQuantity <= p.reorderLevel")
     List<Product> findLowStockProducts();
@@ -38,5 +43,15 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<String> findAllBrands();
 
     List<Product> findBySupplierAndActiveTrue(String supplier);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
 
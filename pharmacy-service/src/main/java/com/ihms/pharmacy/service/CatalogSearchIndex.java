@@ -0,0 +1,290 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.dto.CatalogSuggestionDTO;
+import com.ihms.common.transaction.AfterCommit;
+import com.ihms.pharmacy.entity.Drug;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.DrugRepository;
+import com.ihms.pharmacy.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process typeahead index over active products and drugs. Each word of the name, brand and
+ * generic name, plus the whole SKU and barcode, is kept lower-cased in a sorted map so a prefix
+ * lookup is one range scan; a second map sorted by name serves the entries whose name starts with
+ * the query, which always rank first. Built at startup, updated by the catalog services after
+ * commit, and rebuilt periodically to pick up changes made on other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final ProductRepository productRepository;
+    private final DrugRepository drugRepository;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot index = new Snapshot();
+    // Updates applied while a rebuild is loading, replayed onto the rebuilt index; guarded by writeLock
+    private Map<Key, Entry> updatesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ihms.catalog.index-resync-interval:PT5M}",
+            initialDelayString = "${ihms.catalog.index-resync-interval:PT5M}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            writeLock.lock();
+            try {
+                updatesDuringRebuild = new HashMap<>();
+            } finally {
+                writeLock.unlock();
+            }
+
+            Snapshot rebuilt = new Snapshot();
+            try {
+                productRepository.findByActiveTrue().forEach(product -> rebuilt.add(entryOf(product)));
+                drugRepository.findByActiveTrue().forEach(drug -> rebuilt.add(entryOf(drug)));
+            } catch (RuntimeException e) {
+                writeLock.lock();
+                try {
+                    updatesDuringRebuild = null;
+                } finally {
+                    writeLock.unlock();
+                }
+                throw e;
+            }
+
+            writeLock.lock();
+            try {
+                // Replaying is harmless for updates the load already saw and restores the rest
+                updatesDuringRebuild.forEach(rebuilt::replace);
+                updatesDuringRebuild = null;
+                index = rebuilt;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void index(Product product) {
+        Key key = new Key(Type.PRODUCT, product.getId());
+        Entry entry = Boolean.FALSE.equals(product.getActive()) ? null : entryOf(product);
+        AfterCommit.run(() -> replace(key, entry));
+    }
+
+    public void index(Drug drug) {
+        Key key = new Key(Type.DRUG, drug.getId());
+        Entry entry = Boolean.FALSE.equals(drug.getActive()) ? null : entryOf(drug);
+        AfterCommit.run(() -> replace(key, entry));
+    }
+
+    public List<CatalogSuggestionDTO> suggest(String query, int limit) {
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String normalizedQuery = String.join(" ", terms);
+        int maxResults = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Snapshot snapshot = index;
+
+        // Names starting with the query rank first, in name order: one range scan of the name map
+        List<Entry> results = new ArrayList<>(maxResults);
+        for (Entry entry : snapshot.byName.subMap(normalizedQuery, true, normalizedQuery + Character.MAX_VALUE, false).values()) {
+            results.add(entry);
+            if (results.size() == maxResults) {
+                return suggestions(results);
+            }
+        }
+
+        // Fill up with the remaining matches in name order. Every entry in the range of the longest
+        // term is filtered while scanning and only the best few are kept, so no match is cut off.
+        String lead = terms.stream().max(Comparator.comparingInt(String::length)).get();
+        int remaining = maxResults - results.size();
+        PriorityQueue<Entry> best = new PriorityQueue<>(remaining + 1, BY_NAME.reversed());
+        Set<Key> seen = new HashSet<>();
+        for (Set<Key> keys : snapshot.tokenIndex.subMap(lead, true, lead + Character.MAX_VALUE, false).values()) {
+            for (Key key : keys) {
+                Entry entry = snapshot.entries.get(key);
+                if (entry == null || !seen.add(key)
+                        || entry.normalizedName().startsWith(normalizedQuery) || !entry.matchesAll(terms)) {
+                    continue;
+                }
+                best.add(entry);
+                if (best.size() > remaining) {
+                    best.poll();
+                }
+            }
+        }
+        List<Entry> rest = new ArrayList<>(best);
+        rest.sort(BY_NAME);
+        results.addAll(rest);
+        return suggestions(results);
+    }
+
+    public int size() {
+        return index.entries.size();
+    }
+
+    private void replace(Key key, Entry entry) {
+        writeLock.lock();
+        try {
+            index.replace(key, entry);
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.put(key, entry);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static List<CatalogSuggestionDTO> suggestions(List<Entry> entries) {
+        return entries.stream().map(Entry::suggestion).collect(Collectors.toList());
+    }
+
+    private static Entry entryOf(Product product) {
+        CatalogSuggestionDTO suggestion = CatalogSuggestionDTO.builder()
+                .type(Type.PRODUCT.name())
+                .id(product.getId())
+                .name(product.getName())
+                .sku(product.getSku())
+                .barcode(product.getBarcode())
+                .detail(product.getBrand())
+                .unitPrice(product.getUnitPrice())
+                .build();
+        return new Entry(new Key(Type.PRODUCT, product.getId()), suggestion, normalize(product.getName()),
+                tokens(product.getName(), product.getBrand(), product.getSku(), product.getBarcode()));
+    }
+
+    private static Entry entryOf(Drug drug) {
+        CatalogSuggestionDTO suggestion = CatalogSuggestionDTO.builder()
+                .type(Type.DRUG.name())
+                .id(drug.getId())
+                .name(drug.getName())
+                .sku(drug.getSku())
+                .detail(drug.getGenericName())
+                .unitPrice(drug.getUnitPrice())
+                .build();
+        return new Entry(new Key(Type.DRUG, drug.getId()), suggestion, normalize(drug.getName()),
+                tokens(drug.getName(), drug.getGenericName(), drug.getSku(), null));
+    }
+
+    private static Set<String> tokens(String name, String detail, String sku, String barcode) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokens.addAll(words(name));
+        tokens.addAll(words(detail));
+        tokens.addAll(words(sku));
+        if (sku != null && !sku.isBlank()) {
+            tokens.add(sku.trim().toLowerCase(Locale.ROOT));
+        }
+        if (barcode != null && !barcode.isBlank()) {
+            tokens.add(barcode.trim().toLowerCase(Locale.ROOT));
+        }
+        return Set.copyOf(tokens);
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", words(text));
+    }
+
+    private enum Type {
+        PRODUCT, DRUG
+    }
+
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(Entry::normalizedName)
+            .thenComparing(entry -> entry.key().type())
+            .thenComparing(entry -> entry.key().id());
+
+    private record Key(Type type, Long id) {
+    }
+
+    /**
+     * One generation of the index. Readers use whichever snapshot is current without locking;
+     * writers mutate it under {@code writeLock}.
+     */
+    private static final class Snapshot {
+
+        private final ConcurrentSkipListMap<String, Set<Key>> tokenIndex = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, Entry> byName = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+        void replace(Key key, Entry entry) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                byName.remove(previous.nameKey());
+                for (String token : previous.tokens()) {
+                    tokenIndex.computeIfPresent(token, (t, keys) -> {
+                        keys.remove(key);
+                        return keys.isEmpty() ? null : keys;
+                    });
+                }
+            }
+            if (entry != null) {
+                add(entry);
+            }
+        }
+
+        void add(Entry entry) {
+            entries.put(entry.key(), entry);
+            byName.put(entry.nameKey(), entry);
+            for (String token : entry.tokens()) {
+                tokenIndex.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(entry.key());
+            }
+        }
+    }
+
+    private record Entry(Key key, CatalogSuggestionDTO suggestion, String normalizedName, Set<String> tokens) {
+
+        // Unique sort key: the name, then the item it belongs to
+        String nameKey() {
+            return normalizedName + '\u0000' + key.type() + ':' + key.id();
+        }
+
+        boolean matchesAll(List<String> terms) {
+            for (String term : terms) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
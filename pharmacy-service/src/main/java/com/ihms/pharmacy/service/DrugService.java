@@ -1,8 +1,8 @@
 package com.ihms.pharmacy.service;
 
 import com.ihms.common.dto.DrugDTO;
-import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.web.SearchLimit;
 import com.ihms.pharmacy.entity.Drug;
 import com.ihms.pharmacy.repository.DrugRepository;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +18,9 @@ import java.util.stream.Collectors;
 public class DrugService {
 
     private final DrugRepository drugRepository;
+    private final StockService stockService;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final InventoryAlertService inventoryAlertService;
 
     public List<DrugDTO> getAllDrugs() {
         return drugRepository.findByActiveTrue().stream()
@@ -31,8 +34,8 @@ public class DrugService {
                 .orElseThrow(() -> new ResourceNotFoundException("Drug", id));
     }
 
-    public List<DrugDTO> searchDrugs(String name) {
-        return drugRepository.searchByName(name).stream()
+    public List<DrugDTO> searchDrugs(String name, Integer limit) {
+        return drugRepository.searchByName(name, SearchLimit.clamp(limit)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
@@ -68,6 +71,8 @@ public class DrugService {
                 .build();
 
         Drug saved = drugRepository.save(drug);
+        catalogSearchIndex.index(saved);
+        inventoryAlertService.refreshDrugsAfterCommit(List.of(saved.getId()));
         return toDTO(saved);
     }
 
@@ -89,25 +94,17 @@ public class DrugService {
         }
 
         Drug updated = drugRepository.save(drug);
+        catalogSearchIndex.index(updated);
+        inventoryAlertService.refreshDrugsAfterCommit(List.of(updated.getId()));
         return toDTO(updated);
     }
 
     @Transactional
     public DrugDTO updateStock(Long id, int quantity, boolean isAddition) {
-        Drug drug = drugRepository.findById(id)
+        stockService.adjustDrugStock(id, quantity, isAddition);
+        return drugRepository.findById(id)
+                .map(this::toDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("Drug", id));
-
-        int newStock = isAddition ?
-                drug.getStockQuantity() + quantity :
-                drug.getStockQuantity() - quantity;
-
-        if (newStock < 0) {
-            throw new BadRequestException("Insufficient stock. Available: " + drug.getStockQuantity());
-        }
-
-        drug.setStockQuantity(newStock);
-        Drug updated = drugRepository.save(drug);
-        return toDTO(updated);
     }
 
     @Transactional
@@ -116,6 +113,8 @@ public class DrugService {
                 .orElseThrow(() -> new ResourceNotFoundException("Drug", id));
         drug.setActive(false);
         drugRepository.save(drug);
+        catalogSearchIndex.index(drug);
+        inventoryAlertService.refreshDrugsAfterCommit(List.of(drug.getId()));
     }
 
     private DrugDTO toDTO(Drug drug) {
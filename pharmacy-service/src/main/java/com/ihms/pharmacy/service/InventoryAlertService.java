@@ -0,0 +1,333 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.dto.InventoryAlertDTO;
+import com.ihms.common.transaction.AfterCommit;
+import com.ihms.pharmacy.entity.Drug;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.DrugRepository;
+import com.ihms.pharmacy.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Incrementally maintained set of inventory alerts for products and drugs. Stock and threshold
+ * writes queue a refresh of the affected items after commit, a periodic resync repairs anything
+ * changed by other instances, and dashboards read the set in O(alerts) or subscribe to changes
+ * over SSE. Refreshes and sends run on a single background thread through a bounded queue, so
+ * neither the re-read nor a slow client holds up the stock write that raised the alert. Every
+ * read takes a ticket before it starts, and an item is never overwritten by a read that started
+ * before the one that last set it.
+ */
+@Service
+public class InventoryAlertService {
+
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+    public static final String EXPIRING = "EXPIRING";
+
+    private static final String PRODUCT = "PRODUCT";
+    private static final String DRUG = "DRUG";
+
+    private final ProductRepository productRepository;
+    private final DrugRepository drugRepository;
+    private final TransactionTemplate readTransaction;
+    private final int expiryAlertDays;
+    private final long streamTimeoutMillis;
+
+    private final ConcurrentHashMap<ItemKey, List<InventoryAlertDTO>> alertsByItem = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ThreadPoolExecutor sender;
+    private final AtomicBoolean eventsDropped = new AtomicBoolean();
+    private final AtomicLong readTickets = new AtomicLong();
+    // Guarded by lock: the ticket of the read that last set each item, and the ticket of the
+    // last applied resync, which supersedes every read that started before it
+    private final Map<ItemKey, Long> itemTickets = new HashMap<>();
+    private long resyncTicket;
+
+    public InventoryAlertService(ProductRepository productRepository,
+                                 DrugRepository drugRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${ihms.inventory.expiry-alert-days:30}") int expiryAlertDays,
+                                 @Value("${ihms.inventory.alert-stream-timeout:PT30M}") Duration streamTimeout,
+                                 @Value("${ihms.inventory.alert-stream-queue-size:1000}") int streamQueueSize) {
+        this.productRepository = productRepository;
+        this.drugRepository = drugRepository;
+        this.expiryAlertDays = expiryAlertDays;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+
+        // Refreshes run after commit, so they need their own persistence context to see fresh rows
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(streamQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-alert-stream");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public List<InventoryAlertDTO> getAlerts(String alertType) {
+        return alertsByItem.values().stream()
+                .flatMap(List::stream)
+                .filter(alert -> alertType == null || alert.getAlertType().equalsIgnoreCase(alertType))
+                .sorted(Comparator.comparing(InventoryAlertDTO::getItemType)
+                        .thenComparing(InventoryAlertDTO::getItemId))
+                .collect(Collectors.toList());
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(streamTimeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(getAlerts(null)));
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public void refreshProductAfterCommit(Long productId) {
+        AfterCommit.run(() -> queueRefresh(List.of(productId), List.of()));
+    }
+
+    public void refreshDrugsAfterCommit(Collection<Long> drugIds) {
+        List<Long> ids = List.copyOf(drugIds);
+        AfterCommit.run(() -> queueRefresh(List.of(), ids));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ihms.inventory.alert-resync-interval:PT10M}",
+            initialDelayString = "${ihms.inventory.alert-resync-interval:PT10M}")
+    public void resync() {
+        long ticket = readTickets.incrementAndGet();
+        Map<ItemKey, List<InventoryAlertDTO>> current = readTransaction.execute(status -> {
+            Map<ItemKey, List<InventoryAlertDTO>> found = new HashMap<>();
+            productRepository.findLowStockProducts()
+                    .forEach(product -> found.put(new ItemKey(PRODUCT, product.getId()), alertsFor(product)));
+            Map<Long, Drug> drugs = new HashMap<>();
+            drugRepository.findLowStockDrugs().forEach(drug -> drugs.put(drug.getId(), drug));
+            drugRepository.findExpiringDrugs(expiryHorizon()).forEach(drug -> drugs.put(drug.getId(), drug));
+            drugs.values().forEach(drug -> found.put(new ItemKey(DRUG, drug.getId()), alertsFor(drug)));
+            return found;
+        });
+
+        Set<ItemKey> items = new HashSet<>(alertsByItem.keySet());
+        items.addAll(current.keySet());
+        publish(applyAll(items.stream().collect(Collectors.toMap(item -> item,
+                item -> current.getOrDefault(item, List.of()))), ticket, true));
+    }
+
+    // Never on the writer's thread: the re-read would hold a second pooled connection while the
+    // writer's is still bound, and a failure would surface as an error for a committed write
+    private void queueRefresh(List<Long> productIds, List<Long> drugIds) {
+        try {
+            sender.execute(() -> {
+                List<AlertEvent> events = List.of();
+                try {
+                    events = refresh(productIds, drugIds);
+                } catch (RuntimeException e) {
+                    // Left for the next resync
+                }
+                send(events);
+            });
+        } catch (RejectedExecutionException e) {
+            // The queue is full of pending sends; the next resync picks the change up
+        }
+    }
+
+    private List<AlertEvent> refresh(List<Long> productIds, List<Long> drugIds) {
+        long ticket = readTickets.incrementAndGet();
+        Map<ItemKey, List<InventoryAlertDTO>> updates = readTransaction.execute(status -> {
+            Map<ItemKey, List<InventoryAlertDTO>> found = new HashMap<>();
+            for (Long id : productIds) {
+                found.put(new ItemKey(PRODUCT, id),
+                        productRepository.findById(id).map(this::alertsFor).orElse(List.of()));
+            }
+            for (Long id : drugIds) {
+                found.put(new ItemKey(DRUG, id),
+                        drugRepository.findById(id).map(this::alertsFor).orElse(List.of()));
+            }
+            return found;
+        });
+        return applyAll(updates, ticket, false);
+    }
+
+    private List<AlertEvent> applyAll(Map<ItemKey, List<InventoryAlertDTO>> updates, long ticket, boolean resync) {
+        List<AlertEvent> events = new ArrayList<>();
+        lock.lock();
+        try {
+            if (ticket < resyncTicket) {
+                return events;
+            }
+            updates.forEach((item, alerts) -> {
+                if (itemTickets.getOrDefault(item, 0L) > ticket) {
+                    return;
+                }
+                itemTickets.put(item, ticket);
+                List<InventoryAlertDTO> previous = alerts.isEmpty()
+                        ? alertsByItem.remove(item)
+                        : alertsByItem.put(item, alerts);
+                diff(previous != null ? previous : List.of(), alerts, events);
+            });
+            if (resync) {
+                resyncTicket = ticket;
+                itemTickets.values().removeIf(itemTicket -> itemTicket <= ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return events;
+    }
+
+    private static void diff(List<InventoryAlertDTO> previous, List<InventoryAlertDTO> current, List<AlertEvent> events) {
+        Map<String, InventoryAlertDTO> before = previous.stream()
+                .collect(Collectors.toMap(InventoryAlertDTO::getAlertType, alert -> alert));
+        for (InventoryAlertDTO alert : current) {
+            if (!alert.equals(before.remove(alert.getAlertType()))) {
+                events.add(new AlertEvent("RAISED", alert));
+            }
+        }
+        before.values().forEach(alert -> events.add(new AlertEvent("CLEARED", alert)));
+    }
+
+    private void publish(List<AlertEvent> events) {
+        if (events.isEmpty() || emitters.isEmpty()) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(events));
+        } catch (RejectedExecutionException e) {
+            // The queue is full, so tasks are still pending; the last of them sends a fresh snapshot
+            eventsDropped.set(true);
+        }
+    }
+
+    private void send(List<AlertEvent> events) {
+        events.forEach(event -> broadcast("alert", event));
+        if (eventsDropped.getAndSet(false)) {
+            broadcast("snapshot", getAlerts(null));
+        }
+    }
+
+    private void broadcast(String name, Object data) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private List<InventoryAlertDTO> alertsFor(Product product) {
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            return List.of();
+        }
+        String stockAlert = stockAlert(product.getStockQuantity(), product.getReorderLevel());
+        if (stockAlert == null) {
+            return List.of();
+        }
+        return List.of(InventoryAlertDTO.builder()
+                .itemType(PRODUCT)
+                .itemId(product.getId())
+                .name(product.getName())
+                .sku(product.getSku())
+                .alertType(stockAlert)
+                .stockQuantity(product.getStockQuantity())
+                .reorderLevel(product.getReorderLevel())
+                .build());
+    }
+
+    private List<InventoryAlertDTO> alertsFor(Drug drug) {
+        if (!Boolean.TRUE.equals(drug.getActive())) {
+            return List.of();
+        }
+        List<InventoryAlertDTO> alerts = new ArrayList<>(2);
+        String stockAlert = stockAlert(drug.getStockQuantity(), drug.getReorderLevel());
+        if (stockAlert != null) {
+            alerts.add(drugAlert(drug, stockAlert));
+        }
+        if (drug.getExpiryDate() != null && !drug.getExpiryDate().isAfter(expiryHorizon())) {
+            alerts.add(drugAlert(drug, EXPIRING));
+        }
+        return alerts;
+    }
+
+    private static InventoryAlertDTO drugAlert(Drug drug, String alertType) {
+        return InventoryAlertDTO.builder()
+                .itemType(DRUG)
+                .itemId(drug.getId())
+                .name(drug.getName())
+                .sku(drug.getSku())
+                .alertType(alertType)
+                .stockQuantity(drug.getStockQuantity())
+                .reorderLevel(drug.getReorderLevel())
+                .expiryDate(drug.getExpiryDate() != null ? drug.getExpiryDate().toString() : null)
+                .build();
+    }
+
+    private static String stockAlert(Integer stock, Integer reorderLevel) {
+        if (stock == null || reorderLevel == null) {
+            return null;
+        }
+        if (stock == 0) {
+            return OUT_OF_STOCK;
+        }
+        return stock <= reorderLevel ? LOW_STOCK : null;
+    }
+
+    private LocalDate expiryHorizon() {
+        return LocalDate.now().plusDays(expiryAlertDays);
+    }
+
+    private record ItemKey(String itemType, Long itemId) {
+    }
+
+    public record AlertEvent(String action, InventoryAlertDTO alert) {
+    }
+}
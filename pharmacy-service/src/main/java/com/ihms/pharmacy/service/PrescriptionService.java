@@ -1,23 +1,39 @@
 package com.ihms.pharmacy.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ihms.common.cache.PatientSummaryCache;
 import com.ihms.common.dto.PatientDTO;
 import com.ihms.common.dto.PrescriptionDTO;
 import com.ihms.common.dto.PrescriptionItemDTO;
+import com.ihms.common.dto.PrescriptionSummaryDTO;
+import com.ihms.common.events.EventTypes;
+import com.ihms.common.events.OutboxWriter;
 import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.web.KeysetPagination;
+import com.ihms.common.web.NdjsonWriter;
 import com.ihms.pharmacy.entity.Drug;
 import com.ihms.pharmacy.entity.Prescription;
 import com.ihms.pharmacy.entity.PrescriptionItem;
 import com.ihms.pharmacy.feign.PatientClient;
 import com.ihms.pharmacy.repository.DrugRepository;
 import com.ihms.pharmacy.repository.PrescriptionRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,12 +41,33 @@ public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
     private final DrugRepository drugRepository;
+    private final StockService stockService;
     private final PatientClient patientClient;
+    private final PatientSummaryCache patientSummaryCache;
+    private final OutboxWriter outboxWriter;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
 
     public List<PrescriptionDTO> getAllPrescriptions() {
-        return prescriptionRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(prescriptionRepository.findAll());
+    }
+
+    public List<PrescriptionDTO> getPrescriptionsPage(Long after, Integer limit) {
+        List<Long> ids = prescriptionRepository.findIdsAfter(KeysetPagination.after(after), KeysetPagination.limit(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toDTOs(prescriptionRepository.findWithItemsByIdIn(ids));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportPrescriptions(OutputStream out) throws IOException {
+        try (Stream<Prescription> prescriptions = prescriptionRepository.streamAllOrderById()) {
+            new NdjsonWriter(out, objectMapper).writeAll(prescriptions, EXPORT_CHUNK_SIZE, this::toDTOs, entityManager::clear);
+        }
     }
 
     public PrescriptionDTO getPrescriptionById(Long id) {
@@ -40,46 +77,91 @@ public class PrescriptionService {
     }
 
     public List<PrescriptionDTO> getPrescriptionsByPatientId(Long patientId) {
-        return prescriptionRepository.findByPatientId(patientId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(prescriptionRepository.findByPatientId(patientId));
     }
 
     public List<PrescriptionDTO> getPendingPrescriptions() {
-        return prescriptionRepository.findByStatus(Prescription.Status.PENDING).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(prescriptionRepository.findByStatus(Prescription.Status.PENDING));
+    }
+
+    public List<PrescriptionSummaryDTO> getPendingPrescriptionSummaries(Long after, Integer limit) {
+        List<PrescriptionSummaryDTO> summaries = prescriptionRepository.findSummariesByStatus(
+                Prescription.Status.PENDING, KeysetPagination.after(after), KeysetPagination.limit(limit));
+        Map<Long, String> patientNames = resolvePatientNames(summaries.stream()
+                .map(PrescriptionSummaryDTO::getPatientId)
+                .collect(Collectors.toSet()));
+        summaries.forEach(summary ->
+                summary.setPatientName(patientNames.getOrDefault(summary.getPatientId(), "Unknown")));
+        return summaries;
     }
 
     @Transactional
     public PrescriptionDTO createPrescription(PrescriptionDTO dto) {
-        Prescription prescription = Prescription.builder()
-                .patientId(dto.getPatientId())
-                .doctorId(dto.getDoctorId())
-                .doctorName(dto.getDoctorName())
-                .notes(dto.getNotes())
-                .status(Prescription.Status.PENDING)
-                .build();
+        return createPrescriptions(List.of(dto)).get(0);
+    }
+
+    /**
+     * Creates many prescriptions in one transaction. Referenced drugs are loaded with a single
+     * query and ids come from pooled sequences, so the inserts are sent as JDBC batches.
+     */
+    @Transactional
+    public List<PrescriptionDTO> createPrescriptions(List<PrescriptionDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new BadRequestException("At least one prescription is required");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+
+        Map<Long, Drug> drugs = loadDrugs(dtos);
+        List<Prescription> prescriptions = new ArrayList<>(dtos.size());
+        for (PrescriptionDTO dto : dtos) {
+            Prescription prescription = Prescription.builder()
+                    .patientId(dto.getPatientId())
+                    .doctorId(dto.getDoctorId())
+                    .doctorName(dto.getDoctorName())
+                    .notes(dto.getNotes())
+                    .status(Prescription.Status.PENDING)
+                    .build();
 
-        if (dto.getItems() != null) {
-            for (PrescriptionItemDTO itemDTO : dto.getItems()) {
-                Drug drug = drugRepository.findById(itemDTO.getDrugId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Drug", itemDTO.getDrugId()));
-
-                PrescriptionItem item = PrescriptionItem.builder()
-                        .drug(drug)
-                        .quantity(itemDTO.getQuantity())
-                        .dosage(itemDTO.getDosage())
-                        .frequency(itemDTO.getFrequency())
-                        .durationDays(itemDTO.getDurationDays())
-                        .instructions(itemDTO.getInstructions())
-                        .build();
-                prescription.addItem(item);
+            if (dto.getItems() != null) {
+                for (PrescriptionItemDTO itemDTO : dto.getItems()) {
+                    PrescriptionItem item = PrescriptionItem.builder()
+                            .drug(drugs.get(itemDTO.getDrugId()))
+                            .quantity(itemDTO.getQuantity())
+                            .dosage(itemDTO.getDosage())
+                            .frequency(itemDTO.getFrequency())
+                            .durationDays(itemDTO.getDurationDays())
+                            .instructions(itemDTO.getInstructions())
+                            .build();
+                    prescription.addItem(item);
+                }
             }
+            prescriptions.add(prescription);
         }
 
-        Prescription saved = prescriptionRepository.save(prescription);
-        return toDTO(saved);
+        List<Prescription> saved = prescriptionRepository.saveAll(prescriptions);
+        return toDTOs(saved);
+    }
+
+    private Map<Long, Drug> loadDrugs(List<PrescriptionDTO> dtos) {
+        Set<Long> drugIds = dtos.stream()
+                .filter(dto -> dto.getItems() != null)
+                .flatMap(dto -> dto.getItems().stream())
+                .map(PrescriptionItemDTO::getDrugId)
+                .collect(Collectors.toSet());
+        if (drugIds.contains(null)) {
+            throw new BadRequestException("Drug ID is required for every prescription item");
+        }
+
+        Map<Long, Drug> drugs = drugRepository.findAllById(drugIds).stream()
+                .collect(Collectors.toMap(Drug::getId, Function.identity()));
+        for (Long drugId : drugIds) {
+            if (!drugs.containsKey(drugId)) {
+                throw new ResourceNotFoundException("Drug", drugId);
+            }
+        }
+        return drugs;
     }
 
     @Transactional
@@ -91,15 +173,13 @@ public class PrescriptionService {
             throw new BadRequestException("Prescription already dispensed");
         }
 
-        // Check and update stock for each item
+        Map<Long, Integer> quantities = new HashMap<>();
         for (PrescriptionItem item : prescription.getItems()) {
-            Drug drug = item.getDrug();
-            if (drug.getStockQuantity() < item.getQuantity()) {
-                throw new BadRequestException("Insufficient stock for drug: " + drug.getName());
-            }
-            drug.setStockQuantity(drug.getStockQuantity() - item.getQuantity());
-            drugRepository.save(drug);
+            quantities.merge(item.getDrug().getId(), item.getQuantity(), Integer::sum);
+        }
+        stockService.reserveDrugs(quantities);
 
+        for (PrescriptionItem item : prescription.getItems()) {
             item.setDispensed(true);
             item.setDispensedQuantity(item.getQuantity());
         }
@@ -108,7 +188,9 @@ public class PrescriptionService {
         prescription.setDispensedAt(LocalDateTime.now());
 
         Prescription updated = prescriptionRepository.save(prescription);
-        return toDTO(updated);
+        PrescriptionDTO result = toDTO(updated);
+        outboxWriter.append(EventTypes.PRESCRIPTION, id, EventTypes.PRESCRIPTION_DISPENSED, result);
+        return result;
     }
 
     @Transactional
@@ -124,17 +206,49 @@ public class PrescriptionService {
         prescriptionRepository.save(prescription);
     }
 
+    private List<PrescriptionDTO> toDTOs(List<Prescription> prescriptions) {
+        Set<Long> patientIds = prescriptions.stream()
+                .map(Prescription::getPatientId)
+                .collect(Collectors.toSet());
+        Map<Long, String> patientNames = resolvePatientNames(patientIds);
+
+        return prescriptions.stream()
+                .map(prescription -> toDTO(prescription,
+                        patientNames.getOrDefault(prescription.getPatientId(), "Unknown")))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, String> resolvePatientNames(Set<Long> patientIds) {
+        Map<Long, String> names = new HashMap<>();
+        if (patientIds.isEmpty()) {
+            return names;
+        }
+        try {
+            Map<Long, PatientDTO> patients = patientSummaryCache.getPatients(patientIds,
+                    missing -> patientClient.getPatientsByIds(missing).getData());
+            patients.forEach((id, patient) ->
+                    names.put(id, patient.getFirstName() + " " + patient.getLastName()));
+        } catch (Exception e) {
+            // Use fallback
+        }
+        return names;
+    }
+
     private PrescriptionDTO toDTO(Prescription prescription) {
         String patientName = "Unknown";
         try {
-            PatientDTO patient = patientClient.getPatientById(prescription.getPatientId()).getData();
+            PatientDTO patient = patientSummaryCache.getPatient(prescription.getPatientId(),
+                    id -> patientClient.getPatientById(id).getData());
             if (patient != null) {
                 patientName = patient.getFirstName() + " " + patient.getLastName();
             }
         } catch (Exception e) {
             // Use fallback
         }
+        return toDTO(prescription, patientName);
+    }
 
+    private PrescriptionDTO toDTO(Prescription prescription, String patientName) {
         List<PrescriptionItemDTO> items = prescription.getItems().stream()
                 .map(item -> PrescriptionItemDTO.builder()
                         .id(item.getId())
@@ -145,6 +259,7 @@ public class PrescriptionService {
                         .frequency(item.getFrequency())
                         .durationDays(item.getDurationDays())
                         .instructions(item.getInstructions())
+                        .unitPrice(item.getDrug().getUnitPrice())
                         .build())
                 .collect(Collectors.toList());
 
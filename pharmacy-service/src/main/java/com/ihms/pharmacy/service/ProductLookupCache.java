@@ -0,0 +1,64 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.cache.NearCache;
+import com.ihms.common.dto.ProductDTO;
+import com.ihms.common.transaction.AfterCommit;
+import com.ihms.pharmacy.entity.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the barcode-scanner lookups by SKU and barcode. Writes on this instance
+ * evict the affected keys after commit; stock changed through another instance is visible here
+ * after at most {@code ihms.cache.product.ttl}.
+ */
+@Component
+public class ProductLookupCache {
+
+    private final NearCache<String, ProductDTO> bySku;
+    private final NearCache<String, ProductDTO> byBarcode;
+    private final Timer skuLookups;
+    private final Timer barcodeLookups;
+
+    public ProductLookupCache(MeterRegistry meterRegistry,
+                              @Value("${ihms.cache.product.max-size:20000}") int maxSize,
+                              @Value("${ihms.cache.product.ttl:PT5M}") Duration ttl,
+                              @Value("${ihms.cache.product.max-staleness:PT30M}") Duration maxStaleness) {
+        this.bySku = new NearCache<>("product-sku", maxSize, ttl, maxStaleness, meterRegistry);
+        this.byBarcode = new NearCache<>("product-barcode", maxSize, ttl, maxStaleness, meterRegistry);
+        this.skuLookups = lookupTimer(meterRegistry, "sku");
+        this.barcodeLookups = lookupTimer(meterRegistry, "barcode");
+    }
+
+    public ProductDTO getBySku(String sku, Function<String, ProductDTO> loader) {
+        return skuLookups.record(() -> bySku.get(sku, loader));
+    }
+
+    public ProductDTO getByBarcode(String barcode, Function<String, ProductDTO> loader) {
+        return barcodeLookups.record(() -> byBarcode.get(barcode, loader));
+    }
+
+    public void evict(Product product) {
+        String sku = product.getSku();
+        String barcode = product.getBarcode();
+        AfterCommit.run(() -> {
+            if (sku != null) {
+                bySku.invalidate(sku);
+            }
+            if (barcode != null) {
+                byBarcode.invalidate(barcode);
+            }
+        });
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String key) {
+        return Timer.builder("ihms.product.lookup")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
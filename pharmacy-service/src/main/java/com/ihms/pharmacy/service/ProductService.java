@@ -1,8 +1,10 @@
 package com.ihms.pharmacy.service;
 
+import com.ihms.common.dto.CatalogSuggestionDTO;
 import com.ihms.common.dto.ProductDTO;
 import com.ihms.common.exception.BadRequestException;
 import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.common.web.SearchLimit;
 import com.ihms.pharmacy.entity.Product;
 import com.ihms.pharmacy.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,10 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockService stockService;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final ProductLookupCache productLookupCache;
+    private final InventoryAlertService inventoryAlertService;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     public List<ProductDTO> getAllProducts() {
@@ -33,15 +39,21 @@ public class ProductService {
     }
 
     public ProductDTO getProductBySku(String sku) {
-        return productRepository.findBySku(sku)
-                .map(this::toDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Product with SKU: " + sku));
+        ProductDTO product = productLookupCache.getBySku(sku,
+                key -> productRepository.findBySku(key).map(this::toDTO).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product with SKU: " + sku);
+        }
+        return product;
     }
 
     public ProductDTO getProductByBarcode(String barcode) {
-        return productRepository.findByBarcode(barcode)
-                .map(this::toDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Product with barcode: " + barcode));
+        ProductDTO product = productLookupCache.getByBarcode(barcode,
+                key -> productRepository.findByBarcode(key).map(this::toDTO).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product with barcode: " + barcode);
+        }
+        return product;
     }
 
     public List<ProductDTO> getProductsByCategory(String category) {
@@ -50,8 +62,8 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    public List<ProductDTO> searchProducts(String keyword) {
-        return productRepository.searchByKeyword(keyword).stream()
+    public List<ProductDTO> searchProducts(String keyword, Integer limit) {
+        return productRepository.searchByKeyword(keyword, SearchLimit.clamp(limit)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
@@ -68,6 +80,10 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    public List<CatalogSuggestionDTO> suggest(String query, int limit) {
+        return catalogSearchIndex.suggest(query, limit);
+    }
+
     public List<String> getAllCategories() {
         return productRepository.findAllCategories();
     }
@@ -105,6 +121,8 @@ public class ProductService {
                 .build();
 
         Product saved = productRepository.save(product);
+        catalogSearchIndex.index(saved);
+        inventoryAlertService.refreshProductAfterCommit(saved.getId());
         return toDTO(saved);
     }
 
@@ -112,6 +130,7 @@ public class ProductService {
     public ProductDTO updateProduct(Long id, ProductDTO dto) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
+        productLookupCache.evict(product);
 
         product.setName(dto.getName());
         product.setDescription(dto.getDescription());
@@ -131,25 +150,19 @@ public class ProductService {
         product.setDiscountPercent(dto.getDiscountPercent());
 
         Product updated = productRepository.save(product);
+        productLookupCache.evict(updated);
+        catalogSearchIndex.index(updated);
+        inventoryAlertService.refreshProductAfterCommit(updated.getId());
         return toDTO(updated);
     }
 
     @Transactional
     public ProductDTO updateStock(Long id, int quantity, boolean isAddition) {
+        stockService.adjustProductStock(id, quantity, isAddition);
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
-
-        int newStock = isAddition ?
-                product.getStockQuantity() + quantity :
-                product.getStockQuantity() - quantity;
-
-        if (newStock < 0) {
-            throw new BadRequestException("Insufficient stock. Available: " + product.getStockQuantity());
-        }
-
-        product.setStockQuantity(newStock);
-        Product updated = productRepository.save(product);
-        return toDTO(updated);
+        productLookupCache.evict(product);
+        return toDTO(product);
     }
 
     @Transactional
@@ -158,6 +171,9 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
         product.setActive(false);
         productRepository.save(product);
+        productLookupCache.evict(product);
+        catalogSearchIndex.index(product);
+        inventoryAlertService.refreshProductAfterCommit(product.getId());
     }
 
     private ProductDTO toDTO(Product product) {
@@ -0,0 +1,83 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.exception.BadRequestException;
+import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.pharmacy.entity.Drug;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.DrugRepository;
+import com.ihms.pharmacy.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies stock movements as single conditional UPDATE statements, so concurrent dispenses
+ * neither lose updates nor hold row locks across a read-modify-write. The updates bypass the
+ * persistence context; reload the entity afterwards if the new quantity is needed.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private final DrugRepository drugRepository;
+    private final ProductRepository productRepository;
+    private final InventoryAlertService inventoryAlertService;
+
+    @Transactional
+    public void adjustDrugStock(Long drugId, int quantity, boolean isAddition) {
+        requirePositive(quantity);
+        int updated = isAddition
+                ? drugRepository.incrementStock(drugId, quantity)
+                : drugRepository.decrementStock(drugId, quantity);
+        if (updated == 0) {
+            Drug drug = drugRepository.findById(drugId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Drug", drugId));
+            throw new BadRequestException("Insufficient stock. Available: " + drug.getStockQuantity());
+        }
+        inventoryAlertService.refreshDrugsAfterCommit(List.of(drugId));
+    }
+
+    @Transactional
+    public void adjustProductStock(Long productId, int quantity, boolean isAddition) {
+        requirePositive(quantity);
+        int updated = isAddition
+                ? productRepository.incrementStock(productId, quantity)
+                : productRepository.decrementStock(productId, quantity);
+        if (updated == 0) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+            throw new BadRequestException("Insufficient stock. Available: " + product.getStockQuantity());
+        }
+        inventoryAlertService.refreshProductAfterCommit(productId);
+    }
+
+    /**
+     * Reserves several drugs at once. Rows are decremented in ascending id order so that two
+     * multi-item reservations cannot deadlock each other; a shortfall on any drug throws and
+     * rolls back the decrements already applied.
+     */
+    @Transactional
+    public void reserveDrugs(Map<Long, Integer> quantitiesByDrugId) {
+        new TreeMap<>(quantitiesByDrugId).forEach((drugId, quantity) -> {
+            if (quantity < 0) {
+                throw new BadRequestException("Quantity must not be negative");
+            }
+            if (quantity > 0 && drugRepository.decrementStock(drugId, quantity) == 0) {
+                Drug drug = drugRepository.findById(drugId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Drug", drugId));
+                throw new BadRequestException("Insufficient stock for drug: " + drug.getName());
+            }
+        });
+        inventoryAlertService.refreshDrugsAfterCommit(quantitiesByDrugId.keySet());
+    }
+
+    private void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new BadRequestException("Quantity must be greater than zero");
+        }
+    }
+}
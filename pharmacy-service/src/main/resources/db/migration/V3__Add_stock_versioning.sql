@@ -0,0 +1,8 @@
+-- V3__Add_stock_versioning.sql
+-- Optimistic lock columns; stock decrements bump version atomically in the same UPDATE
+ALTER TABLE drugs ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE prescriptions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE drugs ADD CONSTRAINT chk_drugs_stock_non_negative CHECK (stock_quantity >= 0);
+ALTER TABLE products ADD CONSTRAINT chk_products_stock_non_negative CHECK (stock_quantity >= 0);
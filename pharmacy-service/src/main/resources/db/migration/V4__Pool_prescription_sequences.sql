@@ -0,0 +1,4 @@
+-- V4__Pool_prescription_sequences.sql
+-- Match the allocationSize of the entity sequence generators so Hibernate can batch inserts
+ALTER SEQUENCE prescriptions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE prescription_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- V5__Add_trigram_search_indexes.sql
+-- Trigram GIN indexes serve the ILIKE '%term%' searches that btree indexes cannot
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+CREATE INDEX idx_products_description_trgm ON products USING gin (description gin_trgm_ops);
+CREATE INDEX idx_drugs_name_trgm ON drugs USING gin (name gin_trgm_ops);
+CREATE INDEX idx_drugs_generic_name_trgm ON drugs USING gin (generic_name gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- V6__Add_inventory_alert_indexes.sql
+-- Partial indexes hold only the rows that are currently alerting, so the alert queries
+-- read O(alerts) rows instead of scanning the active catalog
+CREATE INDEX idx_products_low_stock ON products (id) WHERE active = true AND stock_quantity <= reorder_level;
+CREATE INDEX idx_products_out_of_stock ON products (id) WHERE active = true AND stock_quantity = 0;
+CREATE INDEX idx_drugs_low_stock ON drugs (id) WHERE active = true AND stock_quantity <= reorder_level;
+CREATE INDEX idx_drugs_expiry_active ON drugs (expiry_date) WHERE active = true;
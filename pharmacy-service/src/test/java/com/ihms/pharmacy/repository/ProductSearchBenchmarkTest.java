@@ -0,0 +1,102 @@
+package com.ihms.pharmacy.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyword search over 1M products: the original LOWER(...) LIKE query against the trigram-indexed
+ * ILIKE query with ranking and a limit. Run with {@code ./gradlew :pharmacy-service:benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 15;
+    private static final int SEARCH_LIMIT = 50;
+
+    private static final String LEGACY_SEARCH = "SELECT * FROM products p WHERE p.active = true " +
+            "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+            // Same ordering and page size as searchByKeyword, so both sides return equal-sized results
+            "ORDER BY similarity(p.name, ?) DESC, p.name LIMIT ?";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void loadCatalog() {
+        jdbcTemplate.update("INSERT INTO products (name, sku, description, category, brand, unit_price, " +
+                "stock_quantity, reorder_level, active, taxable) " +
+                "SELECT (ARRAY['Paracetamol','Ibuprofen','Amoxicillin','Cetirizine','Omeprazole'," +
+                "'Metformin','Atorvastatin','Salbutamol','Loratadine','Diclofenac'])[1 + i % 10] " +
+                "|| ' ' || (50 * (1 + i % 20)) || 'mg ' || substr(md5(i::text), 1, 10), " +
+                "'BENCH-' || i, 'Catalog entry ' || md5((i * 7)::text), 'Benchmark', 'BenchBrand', 1.00, 100, 10, true, true " +
+                "FROM generate_series(1, ?) AS i", PRODUCTS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @Test
+    void trigramSearchBeatsSequentialScan() {
+        loadCatalog();
+
+        // A code typed at the till matches a handful of rows; a drug name matches a tenth of the catalog
+        String selective = jdbcTemplate.queryForObject(
+                "SELECT substr(md5('424242'), 2, 6)", String.class);
+        String broad = "ibupro";
+
+        long legacySelective = medianMicros(() -> legacySearch(selective));
+        long indexedSelective = medianMicros(() -> productRepository.searchByKeyword(selective, SEARCH_LIMIT).size());
+        long legacyBroad = medianMicros(() -> legacySearch(broad));
+        long indexedBroad = medianMicros(() -> productRepository.searchByKeyword(broad, SEARCH_LIMIT).size());
+
+        System.out.printf("Product search over %,d rows (median of %d runs)%n", PRODUCTS, MEASURED_RUNS);
+        System.out.printf("  selective '%s': LIKE %,d us, trigram %,d us%n", selective, legacySelective, indexedSelective);
+        System.out.printf("  broad '%s':     LIKE %,d us, trigram %,d us%n", broad, legacyBroad, indexedBroad);
+
+        assertThat(indexedSelective * 10).isLessThan(legacySelective);
+        assertThat(indexedBroad).isLessThan(legacyBroad);
+    }
+
+    private int legacySearch(String keyword) {
+        return jdbcTemplate.queryForList(LEGACY_SEARCH, keyword, keyword, keyword, SEARCH_LIMIT).size();
+    }
+
+    private static long medianMicros(IntSupplier search) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            search.getAsInt();
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            search.getAsInt();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2];
+    }
+}
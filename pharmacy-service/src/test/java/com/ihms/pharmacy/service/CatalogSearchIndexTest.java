@@ -0,0 +1,118 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.dto.CatalogSuggestionDTO;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.DrugRepository;
+import com.ihms.pharmacy.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSearchIndexTest {
+
+    private ProductRepository productRepository;
+    private DrugRepository drugRepository;
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        drugRepository = mock(DrugRepository.class);
+        when(drugRepository.findByActiveTrue()).thenReturn(List.of());
+        index = new CatalogSearchIndex(productRepository, drugRepository);
+    }
+
+    @Test
+    void matchesAnyWordOfNameBrandAndSku() {
+        load(product(1L, "Surgical Mask", "MediSafe", "PRD-001"),
+                product(2L, "Latex Gloves", "MediSafe", "PRD-006"),
+                product(3L, "Hand Sanitizer", "CleanHands", "PRD-002"));
+
+        assertThat(names(index.suggest("medi", 10))).containsExactly("Latex Gloves", "Surgical Mask");
+        assertThat(names(index.suggest("prd-002", 10))).containsExactly("Hand Sanitizer");
+        assertThat(names(index.suggest("mask medi", 10))).containsExactly("Surgical Mask");
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksNamePrefixMatchesFirst() {
+        load(product(1L, "Zinc Tablets", "Amoxa", "PRD-100"),
+                product(2L, "Amoxicillin 500mg", "Generic", "PRD-101"));
+
+        assertThat(names(index.suggest("amox", 10))).containsExactly("Amoxicillin 500mg", "Zinc Tablets");
+    }
+
+    @Test
+    void findsBestMatchesBeyondTheFirstThousandTokens() {
+        List<Product> catalog = new ArrayList<>();
+        // Brand tokens "amoxa..." sort before "amoxicillin" and would crowd out a truncated scan
+        for (long id = 1; id <= 2_000; id++) {
+            catalog.add(product(id, String.format("Zinc supplement %04d", id), "Amoxa" + id, "ZN-" + id));
+        }
+        catalog.add(product(5_000L, "Amoxicillin 500mg", "Generic", "AMX-500"));
+        load(catalog.toArray(Product[]::new));
+
+        assertThat(names(index.suggest("amox", 5))).first().isEqualTo("Amoxicillin 500mg");
+        assertThat(names(index.suggest("amox 500", 5))).contains("Amoxicillin 500mg");
+        assertThat(names(index.suggest("zinc amoxa1999", 5))).containsExactly("Zinc supplement 1999");
+    }
+
+    @Test
+    void appliesIncrementalUpdates() {
+        load(product(1L, "Surgical Mask", "MediSafe", "PRD-001"));
+
+        index.index(product(1L, "Procedure Mask", "MediSafe", "PRD-001"));
+        index.index(product(2L, "Digital Thermometer", "TempCheck", "PRD-003"));
+        Product retired = product(2L, "Digital Thermometer", "TempCheck", "PRD-003");
+        retired.setActive(false);
+        index.index(retired);
+
+        assertThat(names(index.suggest("surgical", 10))).isEmpty();
+        assertThat(names(index.suggest("procedure", 10))).containsExactly("Procedure Mask");
+        assertThat(index.suggest("thermo", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsUpdatesCommittedWhileARebuildIsLoading() {
+        Product added = product(2L, "Pulse Oximeter", "HealthPlus", "PRD-008");
+        when(productRepository.findByActiveTrue()).thenAnswer(invocation -> {
+            // Committed after the rebuild's query read the catalog
+            index.index(added);
+            return List.of(product(1L, "Surgical Mask", "MediSafe", "PRD-001"));
+        });
+
+        index.rebuild();
+
+        assertThat(names(index.suggest("oxi", 10))).containsExactly("Pulse Oximeter");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private void load(Product... products) {
+        when(productRepository.findByActiveTrue()).thenReturn(List.of(products));
+        index.rebuild();
+    }
+
+    private static List<String> names(List<CatalogSuggestionDTO> suggestions) {
+        return suggestions.stream().map(CatalogSuggestionDTO::getName).collect(Collectors.toList());
+    }
+
+    private static Product product(Long id, String name, String brand, String sku) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setSku(sku);
+        product.setUnitPrice(BigDecimal.ONE);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.dto.InventoryAlertDTO;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.DrugRepository;
+import com.ihms.pharmacy.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryAlertServiceTest {
+
+    private final Map<Long, Product> catalog = new ConcurrentHashMap<>();
+    private ProductRepository productRepository;
+    private InventoryAlertService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void raisesAndClearsAlertsAsStockChanges() throws Exception {
+        service = newService(100);
+        RecordingEmitter emitter = subscribe();
+
+        stock(1L, 5);
+        service.refreshProductAfterCommit(1L);
+        assertThat(emitter.next()).isEqualTo(alert("RAISED", 1L, InventoryAlertService.LOW_STOCK));
+
+        stock(1L, 0);
+        service.refreshProductAfterCommit(1L);
+        assertThat(Set.of(emitter.next(), emitter.next())).containsExactlyInAnyOrder(
+                alert("RAISED", 1L, InventoryAlertService.OUT_OF_STOCK),
+                alert("CLEARED", 1L, InventoryAlertService.LOW_STOCK));
+
+        stock(1L, 50);
+        service.refreshProductAfterCommit(1L);
+        assertThat(emitter.next()).isEqualTo(alert("CLEARED", 1L, InventoryAlertService.OUT_OF_STOCK));
+        assertThat(service.getAlerts(null)).isEmpty();
+    }
+
+    @Test
+    void resyncDoesNotOverwriteANewerRefresh() throws Exception {
+        service = newService(100);
+        RecordingEmitter emitter = subscribe();
+        stock(1L, 5);
+        service.refreshProductAfterCommit(1L);
+        assertThat(emitter.next()).isEqualTo(alert("RAISED", 1L, InventoryAlertService.LOW_STOCK));
+
+        when(productRepository.findLowStockProducts()).thenAnswer(invocation -> {
+            List<Product> snapshot = lowStock();
+            // Restocked and refreshed after the resync read its rows
+            stock(1L, 50);
+            service.refreshProductAfterCommit(1L);
+            assertThat(emitter.next()).isEqualTo(alert("CLEARED", 1L, InventoryAlertService.LOW_STOCK));
+            return snapshot;
+        });
+        service.resync();
+
+        assertThat(service.getAlerts(null)).isEmpty();
+    }
+
+    @Test
+    void sendsASnapshotAfterDroppingEvents() throws Exception {
+        service = newService(1);
+        RecordingEmitter emitter = subscribe();
+        CountDownLatch release = emitter.blockNextSend();
+
+        stock(1L, 5);
+        service.refreshProductAfterCommit(1L);
+        // The sender is now stuck delivering this alert
+        assertThat(emitter.next()).isEqualTo(alert("RAISED", 1L, InventoryAlertService.LOW_STOCK));
+
+        stock(2L, 5);
+        service.resync();
+        stock(3L, 5);
+        service.resync();
+        release.countDown();
+
+        // The snapshot goes out with whichever pending send runs first
+        List<Object> delivered = List.of(emitter.next(), emitter.next());
+        assertThat(delivered).contains(alert("RAISED", 2L, InventoryAlertService.LOW_STOCK));
+        Object snapshot = delivered.stream().filter(List.class::isInstance).findFirst().orElseThrow();
+        assertThat(((List<?>) snapshot).stream()
+                .map(alert -> ((InventoryAlertDTO) alert).getItemId())
+                .collect(Collectors.toList())).containsExactly(1L, 2L, 3L);
+    }
+
+    private InventoryAlertService newService(int streamQueueSize) {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(catalog.get(invocation.<Long>getArgument(0))));
+        when(productRepository.findLowStockProducts()).thenAnswer(invocation -> lowStock());
+        DrugRepository drugRepository = mock(DrugRepository.class);
+        when(drugRepository.findLowStockDrugs()).thenReturn(List.of());
+        when(drugRepository.findExpiringDrugs(any())).thenReturn(List.of());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        return new InventoryAlertService(productRepository, drugRepository, transactionManager,
+                30, Duration.ofMinutes(30), streamQueueSize);
+    }
+
+    private RecordingEmitter subscribe() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(emitter);
+        assertThat(emitter.next()).isEqualTo(List.of());
+        return emitter;
+    }
+
+    private void stock(Long id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setSku("PRD-" + id);
+        product.setStockQuantity(quantity);
+        product.setReorderLevel(10);
+        product.setActive(true);
+        catalog.put(id, product);
+    }
+
+    private List<Product> lowStock() {
+        return catalog.values().stream()
+                .filter(product -> product.getStockQuantity() <= product.getReorderLevel())
+                .collect(Collectors.toList());
+    }
+
+    private static InventoryAlertService.AlertEvent alert(String action, Long productId, String alertType) {
+        return new InventoryAlertService.AlertEvent(action, InventoryAlertDTO.builder()
+                .itemType("PRODUCT")
+                .itemId(productId)
+                .name("Product " + productId)
+                .sku("PRD-" + productId)
+                .alertType(alertType)
+                .stockQuantity(InventoryAlertService.OUT_OF_STOCK.equals(alertType) ? 0 : 5)
+                .reorderLevel(10)
+                .build());
+    }
+
+    /** Captures the data of every event sent, optionally holding up the next send. */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Object> sent = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch gate;
+
+        CountDownLatch blockNextSend() {
+            gate = new CountDownLatch(1);
+            return gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (DataWithMediaType part : builder.build()) {
+                if (!MediaType.TEXT_PLAIN.equals(part.getMediaType()) || !(part.getData() instanceof String)) {
+                    sent.add(part.getData());
+                }
+            }
+            CountDownLatch current = gate;
+            if (current != null) {
+                gate = null;
+                try {
+                    current.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        Object next() throws InterruptedException {
+            Object data = sent.poll(10, TimeUnit.SECONDS);
+            assertThat(data).as("event sent within 10s").isNotNull();
+            return data;
+        }
+    }
+}
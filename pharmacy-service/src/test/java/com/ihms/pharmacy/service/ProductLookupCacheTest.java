@@ -0,0 +1,190 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.dto.ProductDTO;
+import com.ihms.common.exception.ResourceNotFoundException;
+import com.ihms.pharmacy.entity.Product;
+import com.ihms.pharmacy.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductLookupCacheTest {
+
+    private final Map<Long, Product> table = new ConcurrentHashMap<>();
+    private ProductRepository productRepository;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<Long>getArgument(0))).map(this::copy));
+        when(productRepository.findBySku(anyString())).thenAnswer(invocation -> table.values().stream()
+                .filter(product -> invocation.getArgument(0).equals(product.getSku()))
+                .findFirst().map(this::copy));
+        when(productRepository.findByBarcode(anyString())).thenAnswer(invocation -> table.values().stream()
+                .filter(product -> invocation.getArgument(0).equals(product.getBarcode()))
+                .findFirst().map(this::copy));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            // Rows change only when the surrounding transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    table.put(saved.getId(), copy(saved));
+                }
+            });
+            return saved;
+        });
+
+        ProductLookupCache cache = new ProductLookupCache(new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5), Duration.ofMinutes(30));
+        productService = new ProductService(productRepository, mock(StockService.class),
+                mock(CatalogSearchIndex.class), cache, mock(InventoryAlertService.class));
+
+        table.put(1L, product(1L, "Surgical Mask", "PRD-001", "8901000000011"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readsThroughOncePerSkuAndBarcode() {
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Surgical Mask");
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Surgical Mask");
+        assertThat(productService.getProductByBarcode("8901000000011").getName()).isEqualTo("Surgical Mask");
+        assertThat(productService.getProductByBarcode("8901000000011").getName()).isEqualTo("Surgical Mask");
+
+        verify(productRepository, times(1)).findBySku("PRD-001");
+        verify(productRepository, times(1)).findByBarcode("8901000000011");
+    }
+
+    @Test
+    void doesNotCacheMisses() {
+        assertThatThrownBy(() -> productService.getProductBySku("PRD-404"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        table.put(2L, product(2L, "Latex Gloves", "PRD-404", null));
+
+        assertThat(productService.getProductBySku("PRD-404").getName()).isEqualTo("Latex Gloves");
+    }
+
+    @Test
+    void evictsOldAndNewKeysAfterCommit() {
+        table.put(2L, product(2L, "Latex Gloves", "PRD-002", "8901000000035"));
+        warm("PRD-001", "8901000000011");
+        warm("PRD-002", "8901000000035");
+        // Another instance frees the barcode; this instance still caches it for the gloves
+        table.get(2L).setBarcode(null);
+
+        inTransaction(() -> productService.updateProduct(1L, update("Procedure Mask", "8901000000035")));
+        commit();
+
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Procedure Mask");
+        assertThat(productService.getProductByBarcode("8901000000035").getName()).isEqualTo("Procedure Mask");
+        assertThatThrownBy(() -> productService.getProductByBarcode("8901000000011"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        // Unrelated keys stay cached
+        assertThat(productService.getProductBySku("PRD-002").getName()).isEqualTo("Latex Gloves");
+        verify(productRepository, times(1)).findBySku("PRD-002");
+    }
+
+    @Test
+    void keepsEntriesUntilCommit() {
+        warm("PRD-001", "8901000000011");
+
+        inTransaction(() -> productService.updateProduct(1L, update("Procedure Mask", "8901000000035")));
+
+        // Before commit readers still see the committed row, served from the cache
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Surgical Mask");
+        verify(productRepository, times(1)).findBySku("PRD-001");
+        commit();
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Procedure Mask");
+    }
+
+    @Test
+    void rolledBackUpdateLeavesTheCacheUnchanged() {
+        warm("PRD-001", "8901000000011");
+
+        inTransaction(() -> productService.updateProduct(1L, update("Procedure Mask", "8901000000035")));
+        rollback();
+
+        assertThat(productService.getProductBySku("PRD-001").getName()).isEqualTo("Surgical Mask");
+        assertThat(productService.getProductByBarcode("8901000000011").getName()).isEqualTo("Surgical Mask");
+        verify(productRepository, times(1)).findBySku("PRD-001");
+        verify(productRepository, times(1)).findByBarcode("8901000000011");
+        assertThatThrownBy(() -> productService.getProductByBarcode("8901000000035"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void warm(String sku, String barcode) {
+        productService.getProductBySku(sku);
+        productService.getProductByBarcode(barcode);
+    }
+
+    private static void inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        work.run();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void rollback() {
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static ProductDTO update(String name, String barcode) {
+        return ProductDTO.builder()
+                .name(name)
+                .category("PPE")
+                .reorderLevel(10)
+                .barcode(barcode)
+                .build();
+    }
+
+    private Product product(Long id, String name, String sku, String barcode) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setSku(sku);
+        product.setBarcode(barcode);
+        product.setCategory("PPE");
+        product.setStockQuantity(100);
+        product.setReorderLevel(10);
+        product.setActive(true);
+        return product;
+    }
+
+    private Product copy(Product source) {
+        Product product = product(source.getId(), source.getName(), source.getSku(), source.getBarcode());
+        product.setReorderLevel(source.getReorderLevel());
+        return product;
+    }
+}
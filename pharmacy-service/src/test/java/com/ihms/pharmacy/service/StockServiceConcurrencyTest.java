@@ -0,0 +1,169 @@
+package com.ihms.pharmacy.service;
+
+import com.ihms.common.exception.BadRequestException;
+import com.ihms.pharmacy.entity.Drug;
+import com.ihms.pharmacy.feign.PatientClient;
+import com.ihms.pharmacy.repository.DrugRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "ihms.outbox.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=50"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class StockServiceConcurrencyTest {
+
+    private static final int THREADS = 48;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @MockBean
+    private PatientClient patientClient;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private DrugRepository drugRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelDispensesNeverOversellOneDrug() throws Exception {
+        int startingStock = 500;
+        int dispenses = 400;
+        Long drugId = drugRepository.save(drug("STRESS-SINGLE", startingStock)).getId();
+
+        AtomicInteger dispensedUnits = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        AtomicInteger smallestRejected = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicInteger lowestObserved = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Thread watcher = new Thread(() -> {
+            while (running.get()) {
+                lowestObserved.accumulateAndGet(stock(drugId), Math::min);
+            }
+        });
+        watcher.start();
+
+        // Demand averages two units per dispense, well above the starting stock
+        runConcurrently(dispenses, i -> {
+            int quantity = 1 + i % 3;
+            try {
+                stockService.reserveDrugs(Map.of(drugId, quantity));
+                dispensedUnits.addAndGet(quantity);
+            } catch (BadRequestException e) {
+                rejections.incrementAndGet();
+                smallestRejected.accumulateAndGet(quantity, Math::min);
+            }
+        });
+        running.set(false);
+        watcher.join();
+
+        int remaining = stock(drugId);
+        assertThat(lowestObserved.get()).isGreaterThanOrEqualTo(0);
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(dispensedUnits.get() + remaining).isEqualTo(startingStock);
+        assertThat(rejections.get()).isPositive();
+        // A dispense is only rejected once stock has fallen below what it asked for
+        assertThat(remaining).isLessThan(smallestRejected.get());
+    }
+
+    @Test
+    void multiItemReservationsInOppositeOrderDoNotDeadlock() throws Exception {
+        int startingStock = 150;
+        int dispenses = 300;
+        Long first = drugRepository.save(drug("STRESS-PAIR-A", startingStock)).getId();
+        Long second = drugRepository.save(drug("STRESS-PAIR-B", startingStock)).getId();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        runConcurrently(dispenses, i -> {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            quantities.put(i % 2 == 0 ? first : second, 1);
+            quantities.put(i % 2 == 0 ? second : first, 1);
+            try {
+                stockService.reserveDrugs(quantities);
+                successes.incrementAndGet();
+            } catch (BadRequestException e) {
+                rejections.incrementAndGet();
+            }
+        });
+
+        assertThat(successes.get()).isEqualTo(startingStock);
+        assertThat(rejections.get()).isEqualTo(dispenses - startingStock);
+        assertThat(stock(first)).isZero();
+        assertThat(stock(second)).isZero();
+    }
+
+    // Any exception other than a stock rejection fails the test through Future.get
+    private static void runConcurrently(int tasks, IndexedTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int stock(Long drugId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM drugs WHERE id = ?", Integer.class, drugId);
+    }
+
+    private static Drug drug(String sku, int stock) {
+        return Drug.builder()
+                .name("Stress test " + sku)
+                .sku(sku)
+                .unitPrice(new BigDecimal("1.00"))
+                .stockQuantity(stock)
+                .reorderLevel(0)
+                .requiresPrescription(false)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index);
+    }
+}